@@ -6,33 +6,123 @@ import fr.codecake.ecom.order.domain.user.service.UserReader;
 import fr.codecake.ecom.order.domain.user.service.UserSynchronizer;
 import fr.codecake.ecom.order.domain.user.vo.UserAddressToUpdate;
 import fr.codecake.ecom.order.domain.user.vo.UserEmail;
+import fr.codecake.ecom.order.domain.user.vo.UserPublicId;
 import fr.codecake.ecom.order.infrastructure.secondary.service.kinde.KindeService;
 import fr.codecake.ecom.shared.authentification.application.AuthenticatedUser;
+import fr.codecake.ecom.shared.concurrent.KeyedTaskQueue;
+import fr.codecake.ecom.shared.concurrent.KeyedTaskQueue.SubmitResult;
+import fr.codecake.ecom.shared.concurrent.SingleFlight;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class UsersApplicationService {
 
+  private static final Logger log = LoggerFactory.getLogger(UsersApplicationService.class);
+
   private final UserSynchronizer userSynchronizer;
   private final UserReader userReader;
+  private final TransactionTemplate transactionTemplate;
+
+  // Une seule synchronisation à la fois par utilisateur (clé : `sub` du JWT), forcée ou non
+  private final SingleFlight<String, UserSync> userSyncFlight = new SingleFlight<>();
 
-  public UsersApplicationService(UserRepository userRepository, KindeService kindeService) {
+  // Mode asynchrone : la synchronisation Kinde est faite en arrière-plan, hors du chemin de la requête
+  private final boolean asyncSync;
+  private final KeyedTaskQueue<String> backgroundSyncQueue;
+
+  public UsersApplicationService(UserRepository userRepository, KindeService kindeService,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${application.user-sync.async:false}") boolean asyncSync,
+                                 @Value("${application.user-sync.queue-capacity:1000}") int queueCapacity,
+                                 @Value("${application.user-sync.workers:4}") int workers) {
     this.userSynchronizer = new UserSynchronizer(userRepository, kindeService);
     this.userReader = new UserReader(userRepository);
+    this.transactionTemplate = transactionTemplate;
+    this.asyncSync = asyncSync;
+    this.backgroundSyncQueue = asyncSync ? new KeyedTaskQueue<>(queueCapacity, workers) : null;
   }
-  @Transactional
+
+  /**
+   * Synchronise l'utilisateur authentifié avec Kinde puis le retourne.
+   * En mode asynchrone, un utilisateur déjà connu est retourné immédiatement depuis la base
+   * et la synchronisation est planifiée en arrière-plan ; seul un nouvel utilisateur (ou une
+   * synchronisation forcée) attend l'appel à Kinde.
+   */
   public User getAuthenticatedUserWithSync(Jwt jwtToken, boolean forceResync){
-    userSynchronizer.syncWithIdp(jwtToken,forceResync);
-   return userReader.getByEmail(new UserEmail(AuthenticatedUser.username().get()))
-      .orElseThrow();
+    UserEmail userEmail = new UserEmail(AuthenticatedUser.username().get());
+
+    if (asyncSync && !forceResync) {
+      Optional<User> localUser = userReader.getByEmail(userEmail);
+      if (localUser.isPresent()) {
+        if (backgroundSyncQueue.submit(jwtToken.getSubject(), () -> synchronize(jwtToken, false, userEmail)) == SubmitResult.QUEUE_FULL) {
+          // La synchronisation est simplement reportée à la prochaine requête de l'utilisateur
+          log.warn("Background user sync queue is full, sync for subject {} dropped", jwtToken.getSubject());
+        }
+        userSynchronizer.markAsSeen(localUser.get());
+        return localUser.get();
+      }
+    }
+
+    User user = synchronize(jwtToken, forceResync, userEmail);
+    userSynchronizer.markAsSeen(user);
+    return user;
+  }
+
+  /**
+   * Les synchronisations concurrentes d'un même utilisateur partagent la même exécution :
+   * la transaction est validée avant que les appelants en attente ne reçoivent le résultat.
+   * Une synchronisation forcée qui rejoint une synchronisation n'ayant pas interrogé Kinde attend sa fin,
+   * puis lance la sienne (toujours une seule à la fois pour cet utilisateur).
+   */
+  private User synchronize(Jwt jwtToken, boolean forceResync, UserEmail userEmail) {
+    String subject = jwtToken.getSubject();
+    UserSync userSync = userSyncFlight.execute(subject, () -> runSync(jwtToken, forceResync, userEmail));
+    while (forceResync && !userSync.idpFetched()) {
+      userSync = userSyncFlight.execute(subject, () -> runSync(jwtToken, true, userEmail));
+    }
+    return userSync.user();
+  }
+
+  /**
+   * L'appel à Kinde est fait hors transaction, pour ne pas garder une connexion du pool pendant l'appel HTTP ;
+   * seule l'écriture (si quelque chose a changé) se fait dans une transaction courte.
+   */
+  private UserSync runSync(Jwt jwtToken, boolean forceResync, UserEmail userEmail) {
+    Optional<User> localUser = userSynchronizer.findLocalUser(jwtToken);
+    Optional<User> userToSave = userSynchronizer.fetchIdpChanges(jwtToken, localUser, forceResync);
+    // Un nouvel utilisateur est toujours lu chez Kinde : le résultat vaut une synchronisation forcée
+    boolean idpFetched = forceResync || localUser.isEmpty();
+
+    if (userToSave.isEmpty() && localUser.isPresent()) {
+      return new UserSync(localUser.get(), idpFetched);
+    }
+
+    userToSave.ifPresent(user -> transactionTemplate.executeWithoutResult(status -> userSynchronizer.saveIdpUser(user)));
+    return new UserSync(userReader.getByEmail(userEmail).orElseThrow(), idpFetched);
   }
 
-  @Transactional(readOnly = true)
+  // Pas de transaction ici : l'utilisateur courant est le plus souvent servi par le cache du repository
   public User getAuthenticatedUser(){
-    return userReader.getByEmail(new UserEmail(AuthenticatedUser.username().get()))
+    User user = userReader.getByEmail(new UserEmail(AuthenticatedUser.username().get()))
       .orElseThrow();
+    userSynchronizer.markAsSeen(user);
+    return user;
+  }
+
+  // Lecture groupée (ex : vues back-office des commandes) : voir UserRepository.getByPublicIds
+  public Map<UserPublicId, User> getUsersByPublicIds(Collection<UserPublicId> userPublicIds){
+    return userReader.getByPublicIds(userPublicIds);
   }
 
   @Transactional
@@ -40,4 +130,17 @@ public void updateAddress(UserAddressToUpdate userAddressToUpdate){
     userSynchronizer.updateAddress(userAddressToUpdate);
 }
 
+  @PreDestroy
+  void stopBackgroundSync() {
+    if (backgroundSyncQueue != null) {
+      backgroundSyncQueue.close();
+    }
+  }
+
+  /**
+   * Résultat partagé d'une synchronisation.
+   * @param idpFetched Kinde a été interrogé (synchronisation forcée ou nouvel utilisateur)
+   */
+  private record UserSync(User user, boolean idpFetched) {
+  }
 }
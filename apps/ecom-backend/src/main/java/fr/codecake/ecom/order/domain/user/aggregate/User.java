@@ -7,6 +7,7 @@ import org.jilt.Builder;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -82,6 +83,21 @@ public class User {
     this.imageUrl = user.imageUrl;
     this.firstname = user.firstname;
     this.lastname = user.lastname;
+    if (user.lastSeen != null) {
+      this.lastSeen = user.lastSeen;
+    }
+  }
+
+  /**
+   * Indique si les informations de profil (email, prénom, nom, image) sont identiques à celles d'un autre utilisateur.
+   *
+   * @param user L'utilisateur à comparer.
+   */
+  public boolean hasSameProfileAs(User user) {
+    return Objects.equals(email, user.email)
+      && Objects.equals(firstname, user.firstname)
+      && Objects.equals(lastname, user.lastname)
+      && Objects.equals(imageUrl, user.imageUrl);
   }
 
   /**
@@ -6,6 +6,9 @@ import fr.codecake.ecom.order.domain.user.vo.UserAddressToUpdate;
 import fr.codecake.ecom.order.domain.user.vo.UserEmail;
 import fr.codecake.ecom.order.domain.user.vo.UserPublicId;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 public interface UserRepository {
@@ -14,7 +17,13 @@ public interface UserRepository {
 
   Optional<User> get (UserPublicId userPublicId);
 
+  Map<UserPublicId, User> getByPublicIds(Collection<UserPublicId> userPublicIds);
+
   Optional<User> getOneByEmail(UserEmail userEmail);
 
   void updateAddress(UserPublicId userPublicId, UserAddressToUpdate userAddress);
+
+  void updateLastSeen(UserPublicId userPublicId, Instant lastSeen);
+
+  void markVerified(UserPublicId userPublicId, Instant verifiedAt);
 }
@@ -5,6 +5,8 @@ import fr.codecake.ecom.order.domain.user.repository.UserRepository;
 import fr.codecake.ecom.order.domain.user.vo.UserEmail;
 import fr.codecake.ecom.order.domain.user.vo.UserPublicId;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 public class UserReader {
@@ -22,4 +24,8 @@ public class UserReader {
   public Optional<User> getByPublicId (UserPublicId userPublicId){
     return userRepository.get(userPublicId);
   }
+
+  public Map<UserPublicId, User> getByPublicIds(Collection<UserPublicId> userPublicIds){
+    return userRepository.getByPublicIds(userPublicIds);
+  }
 }
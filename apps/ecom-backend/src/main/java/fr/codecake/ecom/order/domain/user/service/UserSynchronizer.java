@@ -4,11 +4,17 @@ package fr.codecake.ecom.order.domain.user.service;
 import fr.codecake.ecom.order.domain.user.aggregate.User;
 import fr.codecake.ecom.order.domain.user.repository.UserRepository;
 import fr.codecake.ecom.order.domain.user.vo.UserAddressToUpdate;
+import fr.codecake.ecom.order.domain.user.vo.UserEmail;
+import fr.codecake.ecom.order.infrastructure.secondary.service.kinde.KindeClientErrorException;
 import fr.codecake.ecom.order.infrastructure.secondary.service.kinde.KindeService;
+import fr.codecake.ecom.order.infrastructure.secondary.service.kinde.KindeUnavailableException;
 import fr.codecake.ecom.shared.authentification.application.AuthenticatedUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.oauth2.jwt.Jwt;
 
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -22,6 +28,8 @@ public class UserSynchronizer {
   private final UserRepository userRepository; // Interface pour interagir avec la base de données
   private final KindeService kindeService; // Service pour récupérer les infos utilisateur depuis Kinde
 
+  private static final Logger log = LoggerFactory.getLogger(UserSynchronizer.class);
+
   // Clé utilisée pour récupérer la date de dernière connexion d'un utilisateur dans le token JWT
   private static final String UPDATE_AT_KEY = "last_signed_in";
 
@@ -38,38 +46,94 @@ public class UserSynchronizer {
 
   /**
    * Synchronise les informations d'un utilisateur avec les données de l'Identity Provider (Kinde).
+   * Enchaîne les trois étapes {@link #findLocalUser}, {@link #fetchIdpChanges} et {@link #saveIdpUser} ;
+   * l'appelant peut aussi les orchestrer lui-même pour ne pas garder de transaction ouverte pendant l'appel HTTP.
    *
    * @param jwtToken Token JWT contenant les informations de l'utilisateur
    * @param forceResync Indique si la synchronisation doit être forcée, même si aucune modification n'est détectée
    */
   public void syncWithIdp(Jwt jwtToken, boolean forceResync){
+    fetchIdpChanges(jwtToken, findLocalUser(jwtToken), forceResync).ifPresent(this::saveIdpUser);
+  }
+
+  /**
+   * Étape 1 (lecture) : recherche l'utilisateur local à partir de l'email présent dans le token.
+   *
+   * @param jwtToken Token JWT contenant les informations de l'utilisateur
+   */
+  public Optional<User> findLocalUser(Jwt jwtToken) {
+    return Optional.ofNullable(jwtToken.getClaims().get(AuthenticatedUser.PREFERRED_USERNAME))
+      .map(email -> new UserEmail(email.toString()))
+      .flatMap(userRepository::getOneByEmail);
+  }
+
+  /**
+   * Étape 2 (sans accès à la base) : décide à partir des claims du JWT et de l'utilisateur local
+   * s'il faut interroger Kinde, puis retourne l'utilisateur Kinde uniquement s'il doit être enregistré.
+   * Kinde n'est appelé que si l'utilisateur est nouveau, si le `last_signed_in` du token est plus
+   * récent que la dernière modification locale, ou si la synchronisation est forcée.
+   *
+   * @param jwtToken Token JWT contenant les informations de l'utilisateur
+   * @param existingUser Utilisateur local, s'il existe
+   * @param forceResync Indique si la synchronisation doit être forcée, même si aucune modification n'est détectée
+   * @return L'utilisateur à enregistrer, ou empty() si rien n'a changé
+   */
+  public Optional<User> fetchIdpChanges(Jwt jwtToken, Optional<User> existingUser, boolean forceResync) {
     // Extraction des informations du token JWT
     Map<String , Object> claims = jwtToken.getClaims();
+    boolean modifiedInIdp = existingUser.isPresent() && isModifiedInIdp(claims, existingUser.get());
+
+    if (existingUser.isPresent() && !forceResync && !modifiedInIdp) {
+      // Utilisateur déjà à jour : pas d'appel vers Kinde
+      return Optional.empty();
+    }
 
     // Extraction des rôles de l'utilisateur à partir du token JWT
     List<String> rolesFromToken = AuthenticatedUser.extractRolesFromToken(jwtToken);
 
-    // Récupération des informations de l'utilisateur depuis Kinde
-    Map<String, Object> userInfo = kindeService.getUserInfo(claims.get("sub").toString());
+    // Récupération des informations de l'utilisateur depuis Kinde (sans passer par le cache si la synchro est forcée)
+    String subject = claims.get("sub").toString();
+    Map<String, Object> userInfo;
+    try {
+      userInfo = forceResync ? kindeService.refreshUserInfo(subject) : kindeService.getUserInfo(subject);
+    } catch (KindeUnavailableException e) {
+      if (existingUser.isPresent()) {
+        // Kinde lent ou indisponible : on conserve l'utilisateur connu en base
+        log.warn("Kinde unavailable, serving last known local user for {}", subject, e);
+        return Optional.empty();
+      }
+      throw e;
+    } catch (KindeClientErrorException e) {
+      if (existingUser.isPresent()) {
+        // Kinde répond mais refuse la requête (ex : 404) : ce n'est pas une panne, on le signale comme une erreur
+        log.error("Kinde rejected user info request, serving last known local user for {}: {}", subject, e.getMessage());
+        return Optional.empty();
+      }
+      throw e;
+    }
 
     // Création d'un objet User avec les informations récupérées
     User user = User.fromTokenAttributes(userInfo, rolesFromToken);
 
-    // Vérification si l'utilisateur existe déjà en base de données
+    if (existingUser.isPresent() && !modifiedInIdp && existingUser.get().hasSameProfileAs(user)) {
+      // Synchronisation forcée mais aucune donnée modifiée : pas d'écriture
+      return Optional.empty();
+    }
+    return Optional.of(user);
+  }
+
+  /**
+   * Étape 3 (écriture) : crée l'utilisateur ou met à jour l'utilisateur existant avec les données de Kinde.
+   *
+   * @param user Utilisateur construit à partir des données de Kinde
+   */
+  public void saveIdpUser(User user) {
+    // L'email du token peut être absent : la recherche se fait avec l'email renvoyé par Kinde
     Optional<User> existingUser = userRepository.getOneByEmail(user.getEmail());
 
     if(existingUser.isPresent()){
-      // Vérification de la date de dernière modification dans le token JWT
-      if(claims.get(UPDATE_AT_KEY) != null){
-        // Récupération des dates de dernière modification
-        Instant lastModifiedDate = existingUser.orElseThrow().getLastModifiedDate();
-        Instant idpModifiedDate = Instant.ofEpochSecond((Integer) claims.get(UPDATE_AT_KEY));
-
-        // Mise à jour de l'utilisateur si les données ont changé ou si la synchronisation est forcée
-        if(idpModifiedDate.isAfter(lastModifiedDate) || forceResync) {
-          updateUser(user, existingUser.get());
-        }
-      }
+      // Mise à jour de l'utilisateur existant avec les données de Kinde
+      updateUser(user, existingUser.get());
     } else {
       // Si l'utilisateur n'existe pas en base, initialisation de ses champs et enregistrement
       user.initFieldForSignup();
@@ -77,6 +141,42 @@ public class UserSynchronizer {
     }
   }
 
+  /**
+   * Indique si l'utilisateur s'est reconnecté chez Kinde depuis la dernière modification locale.
+   *
+   * @param claims Claims du token JWT
+   * @param existingUser Utilisateur existant en base de données
+   */
+  private boolean isModifiedInIdp(Map<String, Object> claims, User existingUser) {
+    Optional<Instant> idpModifiedDate = readInstant(claims.get(UPDATE_AT_KEY));
+    if (idpModifiedDate.isEmpty()) {
+      return false;
+    }
+
+    Instant lastModifiedDate = existingUser.getLastModifiedDate();
+    return lastModifiedDate == null || idpModifiedDate.get().isAfter(lastModifiedDate);
+  }
+
+  /**
+   * Convertit la valeur du claim (secondes epoch, Instant ou texte ISO-8601) en Instant.
+   */
+  private static Optional<Instant> readInstant(Object claim) {
+    if (claim instanceof Instant instant) {
+      return Optional.of(instant);
+    }
+    if (claim instanceof Number epochSeconds) {
+      return Optional.of(Instant.ofEpochSecond(epochSeconds.longValue()));
+    }
+    if (claim instanceof String value && !value.isBlank()) {
+      try {
+        return Optional.of(Instant.parse(value));
+      } catch (DateTimeParseException e) {
+        return Optional.empty();
+      }
+    }
+    return Optional.empty();
+  }
+
   /**
    * Met à jour les informations d'un utilisateur existant dans la base de données.
    *
@@ -84,6 +184,14 @@ public class UserSynchronizer {
    * @param existingUser Utilisateur existant en base de données
    */
   private void updateUser(User user, User existingUser) {
+    if (existingUser.hasSameProfileAs(user)) {
+      // Profil confirmé inchangé par Kinde : sans écriture, la date de modification resterait antérieure
+      // au `last_signed_in` du token et chaque requête rappellerait Kinde. La date de vérification est enregistrée
+      // (la dernière activité est tenue à jour séparément par markAsSeen).
+      userRepository.markVerified(existingUser.getUserPublicId(), Instant.now());
+      return;
+    }
+
     // Mise à jour des champs de l'utilisateur existant avec les nouvelles informations
     existingUser.updateFromUser(user);
 
@@ -91,6 +199,15 @@ public class UserSynchronizer {
     userRepository.save(existingUser);
   }
 
+  /**
+   * Enregistre l'activité d'un utilisateur (écriture différée de `last_seen`).
+   *
+   * @param user Utilisateur authentifié
+   */
+  public void markAsSeen(User user) {
+    userRepository.updateLastSeen(user.getUserPublicId(), Instant.now());
+  }
+
   /**
    * Met à jour l'adresse d'un utilisateur en base de données.
    *
@@ -5,6 +5,8 @@ import fr.codecake.ecom.order.domain.user.aggregate.UserBuilder;
 import fr.codecake.ecom.order.domain.user.vo.*;
 import fr.codecake.ecom.shared.jpa.AbstractAuditingEntity;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 import org.jilt.Builder;
 
 import java.time.Instant;
@@ -14,13 +16,14 @@ import java.util.stream.Collectors;
 // Déclare cette classe comme une entité JPA et la lie à la table "ecommerce_user"
 @Entity
 @Table(name = "ecommerce_user")
+@DynamicUpdate // Les UPDATE ne contiennent que les colonnes modifiées
 @Builder // Génère automatiquement un Builder pour cette classe avec la bibliothèque Jilt
 public class UserEntity extends AbstractAuditingEntity<Long> { // Hérite des fonctionnalités d'audit
 
-  // Clé primaire auto-générée via une séquence PostgreSQL
+  // Clé primaire auto-générée via une séquence PostgreSQL, réservée par blocs de 50 (incrément de user_sequence)
   @Id
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "userSequenceGenerator")
-  @SequenceGenerator(name = "userSequenceGenerator", sequenceName = "user_sequence", allocationSize = 1)
+  @SequenceGenerator(name = "userSequenceGenerator", sequenceName = "user_sequence", allocationSize = 50)
   @Column(name = "id")
   private Long id;
 
@@ -58,7 +61,9 @@ public class UserEntity extends AbstractAuditingEntity<Long> { // Hérite des fo
   private Instant lastSeen;
 
   // Relation Many-to-Many avec AuthorityEntity (rôles utilisateur)
+  // Chargée par jointure dans les requêtes de JpaUserRepository ; sinon, par lots de 25 utilisateurs
   @ManyToMany(cascade = CascadeType.REMOVE)
+  @BatchSize(size = 25)
   @JoinTable(
     name = "user_authority",
     joinColumns = {@JoinColumn(name = "user_id", referencedColumnName = "id")},
@@ -92,8 +97,10 @@ public class UserEntity extends AbstractAuditingEntity<Long> { // Hérite des fo
     this.email = user.getEmail().value();
     this.lastName = user.getLastname().value();
     this.firstName = user.getFirstname().value();
-    this.imageURL = user.getImageUrl().value();
-    this.lastSeen = user.getLastSeen();
+    this.imageURL = user.getImageUrl() != null ? user.getImageUrl().value() : null;
+    if (user.getLastSeen() != null) {
+      this.lastSeen = user.getLastSeen();
+    }
   }
 
   // Conversion d'un objet User (métier) vers UserEntity (base de données)
@@ -120,7 +127,7 @@ public class UserEntity extends AbstractAuditingEntity<Long> { // Hérite des fo
       .email(user.getEmail().value())
       .firstName(user.getFirstname().value())
       .lastName(user.getLastname().value())
-      .lastSeen(user.getLastSeen())
+      .lastSeen(user.getLastSeen() != null ? user.getLastSeen() : Instant.now()) // Colonne obligatoire
       .id(user.getDbId())
       .build();
   }
@@ -152,6 +159,7 @@ public class UserEntity extends AbstractAuditingEntity<Long> { // Hérite des fo
       .userPublicId(new UserPublicId(userEntity.getPublicId()))
       .lastModifiedDate(userEntity.getLastModifiedDate())
       .createdDate(userEntity.getCreatedDate())
+      .lastSeen(userEntity.getLastSeen())
       .dbId(userEntity.getId())
       .build();
   }
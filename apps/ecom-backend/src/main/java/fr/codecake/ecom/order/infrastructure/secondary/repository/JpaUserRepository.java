@@ -1,26 +1,36 @@
 package fr.codecake.ecom.order.infrastructure.secondary.repository;
 
 import fr.codecake.ecom.order.infrastructure.secondary.entity.UserEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface JpaUserRepository extends JpaRepository<UserEntity,Long> {
 
+  // Les rôles sont chargés dans la même requête (jointure) : pas de SELECT supplémentaire dans UserEntity.toDomain
+  @EntityGraph(attributePaths = "authorities")
   Optional<UserEntity> findByEmail(String email);
 
+  @EntityGraph(attributePaths = "authorities")
   List<UserEntity> findByPublicIdIn(List<UUID> publicIds);
 
+  @EntityGraph(attributePaths = "authorities")
   Optional<UserEntity> findOneByPublicId(UUID publicId);
 
   @Modifying
-  @Query("UPDATE UserEntity user" +
+  @Query("UPDATE UserEntity user " +
     "SET user.addressStreet = :street, user.addressCity = :city," +
     "user.addressCountry = :country, user.addressZipCode = :zipCode " +
     "WHERE user.publicId = :userPublicId")
-  void updateAddress(UUID userpublicId, String street, String city, String country, String zipCode);
+  void updateAddress(UUID userPublicId, String street, String city, String country, String zipCode);
+
+  @Modifying
+  @Query("UPDATE UserEntity user SET user.lastModifiedDate = :verifiedAt WHERE user.publicId = :userPublicId")
+  void updateLastModifiedDate(UUID userPublicId, Instant verifiedAt);
 }
@@ -1,13 +1,31 @@
+package fr.codecake.ecom.order.infrastructure.secondary.repository;
+
 import fr.codecake.ecom.order.domain.user.aggregate.User;
 import fr.codecake.ecom.order.domain.user.repository.UserRepository;
 import fr.codecake.ecom.order.domain.user.vo.UserAddressToUpdate;
 import fr.codecake.ecom.order.domain.user.vo.UserEmail;
 import fr.codecake.ecom.order.domain.user.vo.UserPublicId;
 import fr.codecake.ecom.order.infrastructure.secondary.entity.UserEntity;
-import fr.codecake.ecom.order.infrastructure.secondary.repository.JpaUserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 // Indique que cette classe est un Repository Spring (permet l'injection de dépendance et la gestion par Spring)
 @Repository
@@ -16,48 +34,142 @@ public class SpringDataUserRepository implements UserRepository {
   // Dépendance vers JpaUserRepository (interface de Spring Data JPA)
   private final JpaUserRepository jpaUserRepository;
 
+  // Tampon d'écriture différée de la date de dernière activité
+  private final UserLastSeenWriteBehind userLastSeenWriteBehind;
+
+  // Cache des utilisateurs lus (par email et par identifiant public)
+  private final UserCache userCache;
+
+  // Transaction en lecture seule ouverte uniquement en cas d'absence dans le cache
+  private final TransactionTemplate readOnlyTransactionTemplate;
+
+  // Lecture groupée : taille des clauses IN et nombre maximum de requêtes simultanées
+  private final int bulkChunkSize;
+  private final Semaphore bulkQueryPermits;
+
   // Injection du repository via le constructeur
-  public SpringDataUserRepository(JpaUserRepository jpaUserRepository) {
+  public SpringDataUserRepository(JpaUserRepository jpaUserRepository, UserLastSeenWriteBehind userLastSeenWriteBehind,
+                                  UserCache userCache, PlatformTransactionManager transactionManager,
+                                  @Value("${application.user-bulk.chunk-size:256}") int bulkChunkSize,
+                                  @Value("${application.user-bulk.max-concurrent-queries:3}") int bulkMaxConcurrentQueries) {
     this.jpaUserRepository = jpaUserRepository;
+    this.userLastSeenWriteBehind = userLastSeenWriteBehind;
+    this.userCache = userCache;
+    this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+    this.bulkChunkSize = bulkChunkSize;
+    this.bulkQueryPermits = new Semaphore(bulkMaxConcurrentQueries);
   }
 
   /**
    * Sauvegarde ou met à jour un utilisateur dans la base de données.
-   * - Si l'utilisateur a déjà un `dbId`, il est mis à jour.
-   * - Sinon, il est enregistré comme une nouvelle entrée.
+   * - Si l'utilisateur a déjà un `dbId`, l'entité gérée par JPA est modifiée : Hibernate n'émet un UPDATE
+   *   (limité aux colonnes modifiées) que si une valeur a réellement changé.
+   * - Sinon, il est enregistré comme une nouvelle entrée (INSERT).
+   * - L'utilisateur est retiré du cache de lecture.
    */
   @Override
+  @Transactional
   public void save(User user) {
+    userCache.invalidate(user.getUserPublicId());
     if(user.getDbId() != null) { // Vérifie si l'utilisateur a déjà un ID en base
-      Optional<UserEntity> userToUpdateOpt = jpaUserRepository.findById(user.getDbId());
-      if(userToUpdateOpt.isPresent()) {
-        UserEntity userToUpdate = userToUpdateOpt.get();
-        userToUpdate.updateFromUser(user); // Mise à jour de l'entité existante
-        jpaUserRepository.save(UserEntity.from(user)); // Enregistrement après modification
-      } else {
-        jpaUserRepository.save(UserEntity.from(user)); // Création d'un nouvel utilisateur si non trouvé
-      }
+      // Déjà présente dans le contexte de persistance si l'utilisateur a été lu dans la même transaction
+      UserEntity userToUpdate = jpaUserRepository.findById(user.getDbId())
+        .orElseThrow(() -> new EntityNotFoundException(String.format("No user found with id %s", user.getDbId())));
+      userToUpdate.updateFromUser(user); // Dirty checking : pas de save() explicite nécessaire
+    } else {
+      jpaUserRepository.save(UserEntity.from(user)); // Nouvel utilisateur : persist (INSERT), sans merge
     }
   }
 
   /**
    * Récupère un utilisateur en fonction de son identifiant public (UUID).
    * - Retourne un `Optional<User>` pour gérer le cas où l'utilisateur n'existe pas.
+   * - Servi depuis le cache si possible : aucune connexion n'est prise au pool.
    */
   @Override
   public Optional<User> get(UserPublicId userPublicId) {
-    return jpaUserRepository.findOneByPublicId(userPublicId.value()) // Recherche par UUID
-      .map(UserEntity::toDomain); // Conversion de UserEntity vers User (objet métier)
+    return userCache.get(userPublicId, () -> readOnlyTransactionTemplate.execute(status ->
+      jpaUserRepository.findOneByPublicId(userPublicId.value()) // Recherche par UUID
+        .map(UserEntity::toDomain))); // Conversion de UserEntity vers User (objet métier)
+  }
+
+  /**
+   * Récupère plusieurs utilisateurs à partir de leurs identifiants publics.
+   * - Les identifiants sont découpés en clauses IN de `chunk-size` éléments (complétées par Hibernate
+   *   à la puissance de 2 supérieure, ce qui limite le nombre de plans de requête différents).
+   * - Chaque lot charge ses utilisateurs et leurs rôles en une requête.
+   * - S'il y a plusieurs lots, ils sont exécutés en parallèle sur des threads virtuels, avec au plus
+   *   `max-concurrent-queries` connexions du pool utilisées en même temps.
+   */
+  @Override
+  public Map<UserPublicId, User> getByPublicIds(Collection<UserPublicId> userPublicIds) {
+    List<UUID> publicIds = userPublicIds.stream().map(UserPublicId::value).distinct().toList();
+    if (publicIds.isEmpty()) {
+      return Map.of();
+    }
+
+    List<List<UUID>> chunks = new ArrayList<>();
+    for (int from = 0; from < publicIds.size(); from += bulkChunkSize) {
+      chunks.add(publicIds.subList(from, Math.min(from + bulkChunkSize, publicIds.size())));
+    }
+
+    Map<UserPublicId, User> users = new HashMap<>(publicIds.size());
+    if (chunks.size() == 1) {
+      loadChunk(chunks.getFirst()).forEach(user -> users.put(user.getUserPublicId(), user));
+      return users;
+    }
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<List<User>>> results = chunks.stream()
+        .map(chunk -> executor.submit(() -> loadChunkWithPermit(chunk)))
+        .toList();
+      for (Future<List<User>> result : results) {
+        awaitChunk(result).forEach(user -> users.put(user.getUserPublicId(), user));
+      }
+    }
+    return users;
+  }
+
+  private List<User> loadChunk(List<UUID> publicIds) {
+    return readOnlyTransactionTemplate.execute(status -> jpaUserRepository.findByPublicIdIn(publicIds).stream()
+      .map(UserEntity::toDomain)
+      .toList());
+  }
+
+  private List<User> loadChunkWithPermit(List<UUID> publicIds) throws InterruptedException {
+    bulkQueryPermits.acquire();
+    try {
+      return loadChunk(publicIds);
+    } finally {
+      bulkQueryPermits.release();
+    }
+  }
+
+  private static List<User> awaitChunk(Future<List<User>> result) {
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while loading users", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException("Unable to load users", e.getCause());
+    }
   }
 
   /**
    * Récupère un utilisateur à partir de son adresse e-mail.
    * - Retourne un `Optional<User>` pour éviter les `null`.
+   * - Servi depuis le cache si possible : aucune connexion n'est prise au pool.
    */
   @Override
   public Optional<User> getOneByEmail(UserEmail userEmail) {
-    return jpaUserRepository.findByEmail(userEmail.value()) // Recherche par email
-      .map(UserEntity::toDomain); // Conversion en objet métier
+    return userCache.get(userEmail, () -> readOnlyTransactionTemplate.execute(status ->
+      jpaUserRepository.findByEmail(userEmail.value()) // Recherche par email
+        .map(UserEntity::toDomain))); // Conversion en objet métier
   }
 
   /**
@@ -66,6 +178,7 @@ public class SpringDataUserRepository implements UserRepository {
    */
   @Override
   public void updateAddress(UserPublicId userPublicId, UserAddressToUpdate userAddress) {
+    userCache.invalidate(userPublicId);
     jpaUserRepository.updateAddress(
       userPublicId.value(), // UUID de l'utilisateur
       userAddress.userAddress().street(),
@@ -74,4 +187,23 @@ public class SpringDataUserRepository implements UserRepository {
       userAddress.userAddress().zipCode()
     );
   }
+
+  /**
+   * Enregistre que le profil de l'utilisateur a été vérifié auprès de Kinde sans changement.
+   * - Seule la date de dernière modification est avancée (requête UPDATE directe, sans charger l'entité).
+   */
+  @Override
+  public void markVerified(UserPublicId userPublicId, Instant verifiedAt) {
+    userCache.invalidate(userPublicId);
+    jpaUserRepository.updateLastModifiedDate(userPublicId.value(), verifiedAt);
+  }
+
+  /**
+   * Enregistre la date de dernière activité d'un utilisateur.
+   * - L'écriture est différée et regroupée avec celles des autres utilisateurs (voir UserLastSeenWriteBehind).
+   */
+  @Override
+  public void updateLastSeen(UserPublicId userPublicId, Instant lastSeen) {
+    userLastSeenWriteBehind.record(userPublicId, lastSeen);
+  }
 }
@@ -0,0 +1,271 @@
+package fr.codecake.ecom.order.infrastructure.secondary.repository;
+
+import fr.codecake.ecom.order.domain.user.aggregate.User;
+import fr.codecake.ecom.order.domain.user.aggregate.UserBuilder;
+import fr.codecake.ecom.order.domain.user.vo.UserEmail;
+import fr.codecake.ecom.order.domain.user.vo.UserPublicId;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Cache en lecture (read-through) des utilisateurs du domaine, indexé par `UserPublicId` et par `UserEmail`.
+ * - Borné en taille (LRU) et en durée (TTL).
+ * - Les utilisateurs sont copiés à l'entrée et à la sortie : un appelant qui modifie son `User` ne modifie pas le cache.
+ * - Les entrées sont invalidées à chaque écriture, et de nouveau après le commit de la transaction
+ *   pour ne pas garder une version relue par une autre requête avant ce commit.
+ * - Chaque invalidation reçoit une génération : une lecture en cours au moment de l'invalidation
+ *   ne remet pas en cache la version qu'elle a lue (sinon elle écraserait l'invalidation après le commit).
+ */
+@Component
+public class UserCache implements MeterBinder {
+
+  private static final String CACHE_NAME = "user";
+
+  private final Duration ttl;
+  private final int maxSize;
+  private final Clock clock;
+
+  // LinkedHashMap en ordre d'accès : la première entrée est la moins récemment utilisée
+  private final LinkedHashMap<UUID, CachedUser> entries = new LinkedHashMap<>(16, 0.75f, true);
+  // Index secondaire : email -> identifiant public
+  private final Map<String, UUID> publicIdsByEmail = new HashMap<>();
+  // ReentrantLock plutôt que synchronized : ne bloque pas le thread porteur des threads virtuels
+  private final ReentrantLock lock = new ReentrantLock();
+
+  // Générations (protégées par le verrou) : numéro de la dernière invalidation, et dernière invalidation par utilisateur.
+  // Les invalidations ne sont mémorisées que pendant des chargements en cours, dans la limite de `maxSize`
+  private long generation;
+  private final Map<UUID, Long> invalidatedGenerations = new HashMap<>();
+  // Les chargements commencés avant cette génération ne sont plus mis en cache (invalidations oubliées)
+  private long forgottenBefore;
+  private int loadsInFlight;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public UserCache(@Value("${application.user-cache.ttl:60s}") Duration ttl,
+                   @Value("${application.user-cache.max-size:10000}") int maxSize) {
+    this.ttl = ttl;
+    this.maxSize = maxSize;
+    this.clock = Clock.systemUTC();
+  }
+
+  /**
+   * Retourne l'utilisateur en cache pour cet identifiant public, ou le charge avec `loader` et le met en cache.
+   */
+  public Optional<User> get(UserPublicId userPublicId, Supplier<Optional<User>> loader) {
+    return lookup(userPublicId.value()).or(() -> load(loader));
+  }
+
+  /**
+   * Retourne l'utilisateur en cache pour cet email, ou le charge avec `loader` et le met en cache.
+   */
+  public Optional<User> get(UserEmail userEmail, Supplier<Optional<User>> loader) {
+    UUID publicId;
+    lock.lock();
+    try {
+      publicId = publicIdsByEmail.get(userEmail.value());
+    } finally {
+      lock.unlock();
+    }
+    Optional<User> cached = publicId == null ? Optional.empty() : lookup(publicId);
+    if (publicId == null) {
+      misses.increment();
+    }
+    return cached.or(() -> load(loader));
+  }
+
+  /**
+   * Retire l'utilisateur du cache, immédiatement puis après le commit de la transaction en cours.
+   */
+  public void invalidate(UserPublicId userPublicId) {
+    if (userPublicId == null) {
+      return;
+    }
+    remove(userPublicId.value());
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          remove(userPublicId.value());
+        }
+      });
+    }
+  }
+
+  public int size() {
+    lock.lock();
+    try {
+      return entries.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Optional<User> lookup(UUID publicId) {
+    lock.lock();
+    try {
+      CachedUser cached = entries.get(publicId);
+      if (cached != null && clock.instant().isBefore(cached.expiresAt())) {
+        hits.increment();
+        return Optional.of(copy(cached.user()));
+      }
+      if (cached != null) {
+        removeEntry(publicId);
+        evictions.increment();
+      }
+      misses.increment();
+      return Optional.empty();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Optional<User> load(Supplier<Optional<User>> loader) {
+    long startGeneration = startLoad();
+    try {
+      Optional<User> user = loader.get();
+      user.ifPresent(loaded -> put(loaded, startGeneration));
+      return user;
+    } finally {
+      endLoad();
+    }
+  }
+
+  private long startLoad() {
+    lock.lock();
+    try {
+      loadsInFlight++;
+      return generation;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void endLoad() {
+    lock.lock();
+    try {
+      loadsInFlight--;
+      if (loadsInFlight == 0) {
+        // Plus aucun chargement ne peut être concerné par ces invalidations
+        invalidatedGenerations.clear();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void put(User user, long startGeneration) {
+    if (ttl.isZero() || maxSize <= 0 || user.getUserPublicId() == null) {
+      return;
+    }
+
+    UUID publicId = user.getUserPublicId().value();
+    CachedUser cached = new CachedUser(copy(user), clock.instant().plus(ttl));
+
+    lock.lock();
+    try {
+      if (startGeneration < forgottenBefore || invalidatedGenerations.getOrDefault(publicId, startGeneration) > startGeneration) {
+        // Utilisateur invalidé pendant la lecture : la version lue est peut-être antérieure à l'écriture
+        return;
+      }
+      removeEntry(publicId);
+      entries.put(publicId, cached);
+      publicIdsByEmail.put(user.getEmail().value(), publicId);
+      Iterator<Map.Entry<UUID, CachedUser>> eldest = entries.entrySet().iterator();
+      while (entries.size() > maxSize && eldest.hasNext()) {
+        publicIdsByEmail.remove(eldest.next().getValue().user().getEmail().value());
+        eldest.remove();
+        evictions.increment();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void remove(UUID publicId) {
+    lock.lock();
+    try {
+      removeEntry(publicId);
+      generation++;
+      if (loadsInFlight > 0) {
+        if (invalidatedGenerations.size() >= Math.max(maxSize, 1)) {
+          // Trop d'invalidations suivies : les chargements en cours ne seront pas mis en cache
+          invalidatedGenerations.clear();
+          forgottenBefore = generation;
+        } else {
+          invalidatedGenerations.put(publicId, generation);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // Appelé avec le verrou : retire l'entrée et son email de l'index secondaire
+  private void removeEntry(UUID publicId) {
+    CachedUser removed = entries.remove(publicId);
+    if (removed != null) {
+      publicIdsByEmail.remove(removed.user().getEmail().value(), publicId);
+    }
+  }
+
+  private static User copy(User user) {
+    return UserBuilder.user()
+      .lastname(user.getLastname())
+      .firstname(user.getFirstname())
+      .email(user.getEmail())
+      .userPublicId(user.getUserPublicId())
+      .imageUrl(user.getImageUrl())
+      .lastModifiedDate(user.getLastModifiedDate())
+      .createdDate(user.getCreatedDate())
+      .authorities(user.getAuthorities() == null ? null : new HashSet<>(user.getAuthorities()))
+      .dbId(user.getDbId())
+      .userAddress(user.getUserAddress())
+      .lastSeen(user.getLastSeen())
+      .build();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+      .tag("cache", CACHE_NAME).tag("result", "hit")
+      .description("Number of user lookups served from the cache")
+      .register(registry);
+    FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+      .tag("cache", CACHE_NAME).tag("result", "miss")
+      .description("Number of user lookups that required a database query")
+      .register(registry);
+    FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+      .tag("cache", CACHE_NAME)
+      .description("Number of user entries evicted (size or expiration)")
+      .register(registry);
+    Gauge.builder("cache.size", this, UserCache::size)
+      .tag("cache", CACHE_NAME)
+      .register(registry);
+  }
+
+  private record CachedUser(User user, Instant expiresAt) {
+  }
+}
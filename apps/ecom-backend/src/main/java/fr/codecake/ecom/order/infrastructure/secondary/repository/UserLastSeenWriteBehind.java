@@ -0,0 +1,106 @@
+package fr.codecake.ecom.order.infrastructure.secondary.repository;
+
+import fr.codecake.ecom.order.domain.user.vo.UserPublicId;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Tampon "write-behind" pour la colonne `ecommerce_user.last_seen`.
+ * - Chaque activité est enregistrée en mémoire (on ne garde que la date la plus récente par utilisateur).
+ * - Les dates sont écrites périodiquement en une seule mise à jour JDBC par lot, et une dernière fois à l'arrêt.
+ */
+@Component
+public class UserLastSeenWriteBehind {
+
+  private static final Logger log = LoggerFactory.getLogger(UserLastSeenWriteBehind.class);
+
+  private final ConcurrentMap<UUID, Instant> pendingLastSeen = new ConcurrentHashMap<>();
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final String updateSql;
+
+  public UserLastSeenWriteBehind(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                 @Value("${spring.jpa.properties.hibernate.default_schema}") String schema) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    // La condition sur last_seen évite d'écraser une date plus récente écrite par un autre nœud
+    this.updateSql = "UPDATE " + schema + ".ecommerce_user SET last_seen = ? " +
+      "WHERE public_id = ? AND (last_seen IS NULL OR last_seen < ?)";
+  }
+
+  /**
+   * Enregistre une activité de l'utilisateur, sans accès à la base.
+   */
+  public void record(UserPublicId userPublicId, Instant lastSeen) {
+    pendingLastSeen.merge(userPublicId.value(), lastSeen, (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+  }
+
+  public int pendingCount() {
+    return pendingLastSeen.size();
+  }
+
+  /**
+   * Écrit toutes les dates en attente en une seule mise à jour par lot.
+   *
+   * @return Le nombre d'utilisateurs écrits
+   */
+  public int flush() {
+    List<Map.Entry<UUID, Instant>> batch = new ArrayList<>(pendingLastSeen.size());
+    for (Map.Entry<UUID, Instant> entry : pendingLastSeen.entrySet()) {
+      // remove(key, value) : une date enregistrée pendant le flush reste en attente pour le suivant
+      if (pendingLastSeen.remove(entry.getKey(), entry.getValue())) {
+        batch.add(Map.entry(entry.getKey(), entry.getValue()));
+      }
+    }
+
+    if (batch.isEmpty()) {
+      return 0;
+    }
+
+    // Ordre stable des lignes mises à jour : évite les interblocages entre plusieurs nœuds
+    batch.sort(Map.Entry.comparingByKey(Comparator.naturalOrder()));
+
+    try {
+      transactionTemplate.executeWithoutResult(status ->
+        jdbcTemplate.batchUpdate(updateSql, batch, batch.size(), (statement, entry) -> {
+          Timestamp lastSeen = Timestamp.from(entry.getValue());
+          statement.setTimestamp(1, lastSeen);
+          statement.setObject(2, entry.getKey());
+          statement.setTimestamp(3, lastSeen);
+        }));
+    } catch (RuntimeException e) {
+      // Les dates non écrites sont remises en attente pour le prochain flush
+      batch.forEach(entry -> record(new UserPublicId(entry.getKey()), entry.getValue()));
+      log.error("Unable to flush {} last seen dates", batch.size(), e);
+      return 0;
+    }
+    return batch.size();
+  }
+
+  @Scheduled(fixedDelayString = "${application.user-activity.flush-interval:30s}")
+  void flushPeriodically() {
+    flush();
+  }
+
+  @PreDestroy
+  void flushOnShutdown() {
+    int flushed = flush();
+    log.debug("Flushed {} last seen dates on shutdown", flushed);
+  }
+}
@@ -8,9 +8,11 @@ import com.fasterxml.jackson.annotation.JsonProperty;
  *
  * @param accessToken Le jeton d'accès fourni par Kinde pour authentifier les requêtes de l'utilisateur.
  * @param tokenType Le type de jeton, généralement "Bearer".
+ * @param expiresIn Durée de validité du jeton en secondes (peut être absente).
  */
 public record KindeAccessToken(
   @JsonProperty("access_token") String accessToken,
-  @JsonProperty("token_type") String tokenType
+  @JsonProperty("token_type") String tokenType,
+  @JsonProperty("expires_in") Long expiresIn
 ) {
 }
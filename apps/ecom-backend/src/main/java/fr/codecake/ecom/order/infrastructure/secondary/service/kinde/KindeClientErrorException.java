@@ -0,0 +1,12 @@
+package fr.codecake.ecom.order.infrastructure.secondary.service.kinde;
+
+/**
+ * Levée lorsque Kinde refuse la requête (erreur 4xx, ex : utilisateur introuvable) :
+ * le service répond, ce n'est pas une indisponibilité.
+ */
+public class KindeClientErrorException extends RuntimeException {
+
+  public KindeClientErrorException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,145 @@
+package fr.codecake.ecom.order.infrastructure.secondary.service.kinde;
+
+import fr.codecake.ecom.shared.concurrent.CircuitBreaker;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Configuration du client HTTP utilisé pour appeler l'API Kinde.
+ * - Pool de connexions partagé avec limite par route et keep-alive : pas de nouvelle poignée de main TLS à chaque appel.
+ * - Timeouts de connexion, de lecture et d'attente d'une connexion du pool.
+ * - HTTP/2 optionnel via le client HTTP du JDK ; le pool et ses métriques ne sont alors pas créés.
+ * - Clients et exécuteur déclarés comme beans : fermés à l'arrêt du contexte.
+ * - Statistiques du pool exposées en métriques (`httpcomponents.httpclient.pool.*`, tag `httpclient=kinde`).
+ * - Disjoncteur et bulkhead : si Kinde est lent ou indisponible, les appels échouent vite au lieu de s'accumuler.
+ */
+@Configuration
+public class KindeHttpClientConfiguration {
+
+  @Value("${application.kinde.http.max-connections:20}")
+  private int maxConnections;
+
+  @Value("${application.kinde.http.max-connections-per-route:20}")
+  private int maxConnectionsPerRoute;
+
+  @Value("${application.kinde.http.connect-timeout:2s}")
+  private Duration connectTimeout;
+
+  @Value("${application.kinde.http.read-timeout:5s}")
+  private Duration readTimeout;
+
+  @Value("${application.kinde.http.connection-request-timeout:2s}")
+  private Duration connectionRequestTimeout;
+
+  @Value("${application.kinde.http.keep-alive:30s}")
+  private Duration keepAlive;
+
+  @Value("${application.kinde.http.http2:false}")
+  private boolean http2;
+
+  @Bean
+  public CircuitBreaker kindeCircuitBreaker(
+    @Value("${application.kinde.circuit-breaker.failure-threshold:5}") int failureThreshold,
+    @Value("${application.kinde.circuit-breaker.open-duration:30s}") Duration openDuration,
+    @Value("${application.kinde.circuit-breaker.slow-call-threshold:3s}") Duration slowCallThreshold,
+    @Value("${application.kinde.circuit-breaker.max-concurrent-calls:10}") int maxConcurrentCalls,
+    @Value("${application.kinde.circuit-breaker.max-wait:100ms}") Duration maxWait) {
+    // Les erreurs 4xx (ex : utilisateur inconnu) ne signifient pas que Kinde est indisponible
+    return new CircuitBreaker("kinde", failureThreshold, openDuration, slowCallThreshold,
+      maxConcurrentCalls, maxWait, HttpClientErrorException.class::isInstance);
+  }
+
+  @Bean(destroyMethod = "close")
+  @ConditionalOnProperty(name = "application.kinde.http.http2", havingValue = "false", matchIfMissing = true)
+  public PoolingHttpClientConnectionManager kindeConnectionManager() {
+    return PoolingHttpClientConnectionManagerBuilder.create()
+      .setMaxConnTotal(maxConnections)
+      .setMaxConnPerRoute(maxConnectionsPerRoute)
+      .setDefaultConnectionConfig(ConnectionConfig.custom()
+        .setConnectTimeout(Timeout.of(connectTimeout))
+        .setSocketTimeout(Timeout.of(readTimeout))
+        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+        .build())
+      .build();
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "application.kinde.http.http2", havingValue = "false", matchIfMissing = true)
+  public MeterBinder kindeConnectionPoolMetrics(PoolingHttpClientConnectionManager kindeConnectionManager) {
+    return new PoolingHttpClientConnectionManagerMetricsBinder(kindeConnectionManager, "kinde");
+  }
+
+  // Bean pour être fermé à l'arrêt : arrête le thread d'éviction des connexions inactives
+  @Bean(destroyMethod = "close")
+  @ConditionalOnProperty(name = "application.kinde.http.http2", havingValue = "false", matchIfMissing = true)
+  public CloseableHttpClient kindeHttpClient(PoolingHttpClientConnectionManager kindeConnectionManager) {
+    return HttpClients.custom()
+      .setConnectionManager(kindeConnectionManager)
+      .setConnectionManagerShared(true) // Le pool est fermé par son propre bean
+      .setDefaultRequestConfig(RequestConfig.custom()
+        .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+        .setResponseTimeout(Timeout.of(readTimeout))
+        .build())
+      .setKeepAliveStrategy((response, context) -> TimeValue.of(keepAlive))
+      .evictExpiredConnections()
+      .evictIdleConnections(TimeValue.of(keepAlive))
+      .build();
+  }
+
+  // Seul bean Executor du contexte en mode HTTP/2 : Spring Boot ne crée alors pas son applicationTaskExecutor
+  @Bean(destroyMethod = "close")
+  @ConditionalOnProperty(name = "application.kinde.http.http2", havingValue = "true")
+  public ExecutorService kindeHttp2Executor() {
+    return Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  @Bean(destroyMethod = "close")
+  @ConditionalOnProperty(name = "application.kinde.http.http2", havingValue = "true")
+  public HttpClient kindeHttp2Client(ExecutorService kindeHttp2Executor) {
+    return HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_2)
+      .connectTimeout(connectTimeout)
+      .executor(kindeHttp2Executor)
+      .build();
+  }
+
+  @Bean
+  public RestClient kindeRestClient(@Value("${application.kinde.api}") String apiUrl,
+                                    ObjectProvider<CloseableHttpClient> kindeHttpClient,
+                                    ObjectProvider<HttpClient> kindeHttp2Client) {
+    return RestClient.builder()
+      .requestFactory(http2 ? http2RequestFactory(kindeHttp2Client.getObject())
+        : new HttpComponentsClientHttpRequestFactory(kindeHttpClient.getObject()))
+      .baseUrl(apiUrl) // Définit l'URL de base de l'API Kinde (après injection de la configuration)
+      .build();
+  }
+
+  private ClientHttpRequestFactory http2RequestFactory(HttpClient httpClient) {
+    JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+    requestFactory.setReadTimeout(readTimeout);
+    return requestFactory;
+  }
+}
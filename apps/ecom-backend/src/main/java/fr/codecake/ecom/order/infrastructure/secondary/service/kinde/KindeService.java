@@ -1,5 +1,8 @@
 package fr.codecake.ecom.order.infrastructure.secondary.service.kinde;
 
+import fr.codecake.ecom.shared.concurrent.CallNotPermittedException;
+import fr.codecake.ecom.shared.concurrent.CircuitBreaker;
+import jakarta.annotation.PreDestroy;
 import org.apache.hc.core5.http.ContentType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -7,95 +10,166 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
 
-import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service // Marque cette classe comme un service Spring, ce qui permet son injection dans d'autres classes
 public class KindeService {
 
-  // Injection des valeurs de configuration depuis application.properties ou application.yml
-  @Value("${application.kinde.api}")
-  private String apiUrl;
+  // Valeurs de configuration injectées depuis application.properties ou application.yml
+  private final String clientId;
+  private final String clientSecret;
+  private final String audience;
 
-  @Value("${application.kinde.client-id}")
-  private String clientId;
+  // Création d'un logger pour enregistrer les messages d'information et d'erreur
+  private static final Logger log = LoggerFactory.getLogger(KindeService.class);
 
-  @Value("${application.kinde.client-secret}")
-  private String clientSecret;
+  // Client HTTP (pool de connexions partagé, voir KindeHttpClientConfiguration)
+  private final RestClient restClient;
 
-  @Value("${application.kinde.audience}")
-  private String audience;
+  // Disjoncteur + bulkhead autour des appels à Kinde (voir KindeHttpClientConfiguration)
+  private final CircuitBreaker circuitBreaker;
 
-  // Création d'un logger pour enregistrer les messages d'information et d'erreur
-  private static final Logger log = LoggerFactory.getLogger(KindeService.class);
+  // Cache du token d'accès : évite un appel à /oauth/token à chaque requête
+  private final KindeTokenCache tokenCache;
 
-  // Initialisation d'un client HTTP pour envoyer des requêtes API
-  private final RestClient restClient = RestClient.builder()
-    .requestFactory(new HttpComponentsClientHttpRequestFactory()) // Utilisation de HttpClient
-    .baseUrl(apiUrl) // Définit l'URL de base de l'API Kinde
-    .build();
+  // Threads virtuels des rafraîchissements du token en arrière-plan
+  private final ExecutorService tokenRefreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+  // Cache des informations utilisateur, indexé par le `sub` du JWT
+  private final KindeUserInfoCache userInfoCache;
+
+  public KindeService(RestClient kindeRestClient,
+                      CircuitBreaker kindeCircuitBreaker,
+                      @Value("${application.kinde.client-id}") String clientId,
+                      @Value("${application.kinde.client-secret}") String clientSecret,
+                      @Value("${application.kinde.audience}") String audience,
+                      @Value("${application.kinde.token.refresh-ahead:60s}") Duration refreshAhead,
+                      @Value("${application.kinde.token.expiry-margin:10s}") Duration expiryMargin,
+                      @Value("${application.kinde.token.min-lifetime:30s}") Duration minLifetime,
+                      KindeUserInfoCache userInfoCache) {
+    this.restClient = kindeRestClient;
+    this.circuitBreaker = kindeCircuitBreaker;
+    this.clientId = clientId;
+    this.clientSecret = clientSecret;
+    this.audience = audience;
+    this.tokenCache = new KindeTokenCache(() -> circuitBreaker.call(this::fetchToken), tokenRefreshExecutor,
+      refreshAhead, expiryMargin, minLifetime, Clock.systemUTC());
+    this.userInfoCache = userInfoCache;
+  }
 
   /**
-   * Méthode pour récupérer un token d'accès en effectuant une requête POST vers l'API Kinde.
+   * Méthode pour récupérer un token d'accès, depuis le cache si possible.
    *
-   * @return Optional<String> contenant le token JWT, ou empty() si la requête échoue.
+   * @return Le token JWT.
+   * @throws KindeUnavailableException si le token ne peut pas être obtenu.
    */
-  private Optional<String> getToken() {
+  private String getToken() {
     try {
-      // Construction de la requête POST pour obtenir un token d'accès
-      ResponseEntity<KindeAccessToken> accessToken =
-        restClient.post()
-          .uri(apiUrl+"/oauth/token") // Endpoint pour récupérer le token
-          .body("grant_type=client_credentials&audience=" + URLEncoder.encode(audience, StandardCharsets.UTF_8)) // Paramètres OAuth
-          .accept(MediaType.APPLICATION_JSON) // Accepte du JSON en réponse
-          .contentType(MediaType.APPLICATION_FORM_URLENCODED) // Spécifie le format de l'envoi
-          .header("Authorization", "Basic " + Base64.getEncoder().encodeToString(
-            (clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8) // Encodage des credentials en Base64
-          ))
-          .header("Content-Type", ContentType.APPLICATION_FORM_URLENCODED.getMimeType())
-          .retrieve()
-          .toEntity(KindeAccessToken.class); // Récupération de la réponse sous forme d'objet KindeAccessToken
-
-      // Retourne le token s'il est présent dans la réponse
-      return Optional.of(accessToken.getBody().accessToken());
-    } catch (Exception e) {
+      return tokenCache.get();
+    } catch (RuntimeException e) {
       // Log en cas d'échec de la requête
       log.error("Error while getting token", e);
-      return Optional.empty();
+      throw new KindeUnavailableException("No token found", e);
+    }
+  }
+
+  /**
+   * Effectue la requête POST vers l'API Kinde pour obtenir un nouveau token d'accès.
+   *
+   * @return Le token d'accès renvoyé par Kinde.
+   */
+  private KindeAccessToken fetchToken() {
+    // Construction de la requête POST pour obtenir un token d'accès
+    ResponseEntity<KindeAccessToken> accessToken =
+      restClient.post()
+        .uri("/oauth/token") // Endpoint pour récupérer le token
+        .body("grant_type=client_credentials&audience=" + URLEncoder.encode(audience, StandardCharsets.UTF_8)) // Paramètres OAuth
+        .accept(MediaType.APPLICATION_JSON) // Accepte du JSON en réponse
+        .contentType(MediaType.APPLICATION_FORM_URLENCODED) // Spécifie le format de l'envoi
+        .header("Authorization", "Basic " + Base64.getEncoder().encodeToString(
+          (clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8) // Encodage des credentials en Base64
+        ))
+        .header("Content-Type", ContentType.APPLICATION_FORM_URLENCODED.getMimeType())
+        .retrieve()
+        .toEntity(KindeAccessToken.class); // Récupération de la réponse sous forme d'objet KindeAccessToken
+
+    KindeAccessToken token = accessToken.getBody();
+    if (token == null || token.accessToken() == null) {
+      throw new IllegalStateException("No access token in Kinde response");
     }
+    return token;
   }
 
   /**
-   * Récupère les informations d'un utilisateur donné en appelant l'API Kinde avec un token d'accès.
+   * Récupère les informations d'un utilisateur donné, depuis le cache si elles sont encore valides.
    *
    * @param userId L'ID de l'utilisateur dont on veut récupérer les informations
    * @return Un Map contenant les informations de l'utilisateur sous forme clé-valeur
    */
   public Map<String, Object> getUserInfo(String userId) {
+    return userInfoCache.get(userId).orElseGet(() -> refreshUserInfo(userId));
+  }
+
+  /**
+   * Récupère les informations d'un utilisateur directement auprès de Kinde et met le cache à jour.
+   *
+   * @param userId L'ID de l'utilisateur dont on veut récupérer les informations
+   * @return Un Map contenant les informations de l'utilisateur sous forme clé-valeur
+   */
+  public Map<String, Object> refreshUserInfo(String userId) {
+    Map<String, Object> userInfo = fetchUserInfo(userId);
+    userInfoCache.put(userId, userInfo);
+    return userInfo;
+  }
+
+  /**
+   * Appelle l'API Kinde avec un token d'accès pour récupérer les informations d'un utilisateur.
+   */
+  private Map<String, Object> fetchUserInfo(String userId) {
     // Récupération du token, exception levée s'il est introuvable
-    String token = getToken().orElseThrow(() -> new IllegalStateException("No token found"));
+    String token = getToken();
 
     // Définition du type de réponse attendu (un Map<String, Object>)
     var typeRef = new ParameterizedTypeReference<Map<String, Object>>() {};
 
     // Envoi de la requête GET pour récupérer les infos utilisateur
-    ResponseEntity<Map<String, Object>> authorization =
-      restClient.get()
-        .uri(apiUrl + "/api/v1/user?id={id}", userId) // Endpoint pour récupérer un utilisateur avec son ID
+    ResponseEntity<Map<String, Object>> authorization;
+    try {
+      authorization = circuitBreaker.call(() -> restClient.get()
+        .uri("/api/v1/user?id={id}", userId) // Endpoint pour récupérer un utilisateur avec son ID
         .header("Authorization", "Bearer " + token) // Ajout du token dans l'en-tête Authorization
         .accept(MediaType.APPLICATION_JSON) // Spécifie qu'on attend du JSON
         .retrieve()
-        .toEntity(typeRef); // Récupération de la réponse sous forme de Map
+        .toEntity(typeRef)); // Récupération de la réponse sous forme de Map
+    } catch (HttpClientErrorException.Unauthorized e) {
+      // Token révoqué côté Kinde : on vide le cache pour en redemander un au prochain appel
+      tokenCache.invalidate();
+      throw new KindeUnavailableException("Kinde rejected the access token", e);
+    } catch (HttpClientErrorException e) {
+      throw new KindeClientErrorException(String.format("Kinde rejected user info request for %s with status %s", userId, e.getStatusCode()), e);
+    } catch (CallNotPermittedException | RestClientException e) {
+      throw new KindeUnavailableException(String.format("Unable to get user info for %s", userId), e);
+    }
 
     // Retourne le corps de la réponse qui contient les infos de l'utilisateur
     return authorization.getBody();
   }
+
+  @PreDestroy
+  void stopTokenRefresh() {
+    // Interrompt un rafraîchissement en cours plutôt que d'attendre la réponse de Kinde
+    tokenRefreshExecutor.shutdownNow();
+  }
 }
@@ -0,0 +1,136 @@
+package fr.codecake.ecom.order.infrastructure.secondary.service.kinde;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Cache du jeton d'accès à l'API de management Kinde.
+ * - Le jeton est réutilisé jusqu'à peu avant son `expires_in`.
+ * - Il est rafraîchi en arrière-plan lorsqu'il entre dans la fenêtre de rafraîchissement anticipé.
+ * - Les rafraîchissements concurrents sont regroupés en une seule requête vers Kinde.
+ * - Un `expires_in` trop court (moins que le rafraîchissement anticipé, la marge et la durée minimale) est signalé :
+ *   seul le début du rafraîchissement est retardé (au plus tôt après `minLifetime`, au plus tard à mi-vie),
+ *   l'expiration reste celle donnée par Kinde. Sinon chaque appel relancerait une requête vers Kinde.
+ * - Un `expires_in` absent est signalé et remplacé par `minLifetime`.
+ */
+class KindeTokenCache {
+
+  private static final Logger log = LoggerFactory.getLogger(KindeTokenCache.class);
+
+  private final Supplier<KindeAccessToken> tokenLoader; // Appel HTTP réel vers Kinde
+  private final Executor refreshExecutor; // Exécute les rafraîchissements (en arrière-plan ou non)
+  private final Duration refreshAhead; // Rafraîchissement anticipé avant expiration
+  private final Duration expiryMargin; // Marge de sécurité : le jeton est considéré expiré un peu avant l'heure
+  private final Duration minLifetime; // Durée minimale pendant laquelle un jeton est servi avant d'être rafraîchi
+  private final Clock clock;
+
+  private volatile CachedToken current;
+  private final AtomicReference<CompletableFuture<CachedToken>> inFlightRefresh = new AtomicReference<>();
+
+  KindeTokenCache(Supplier<KindeAccessToken> tokenLoader, Executor refreshExecutor,
+                  Duration refreshAhead, Duration expiryMargin, Duration minLifetime, Clock clock) {
+    this.tokenLoader = tokenLoader;
+    this.refreshExecutor = refreshExecutor;
+    this.refreshAhead = refreshAhead;
+    this.expiryMargin = expiryMargin;
+    this.minLifetime = minLifetime;
+    this.clock = clock;
+  }
+
+  /**
+   * Retourne un jeton valide, en ne bloquant que si aucun jeton utilisable n'est en cache.
+   */
+  String get() {
+    CachedToken token = current;
+    Instant now = clock.instant();
+
+    if (token != null && now.isBefore(token.expiresAt())) {
+      if (!now.isBefore(token.refreshAt())) {
+        // Le jeton est encore valide : on le sert et on le renouvelle en arrière-plan
+        refresh();
+      }
+      return token.accessToken();
+    }
+
+    try {
+      return refresh().join().accessToken();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Vide le cache (ex : jeton refusé par Kinde).
+   */
+  void invalidate() {
+    current = null;
+  }
+
+  /**
+   * Lance un rafraîchissement, ou rejoint celui déjà en cours.
+   */
+  private CompletableFuture<CachedToken> refresh() {
+    CompletableFuture<CachedToken> running = inFlightRefresh.get();
+    if (running != null) {
+      return running;
+    }
+
+    CompletableFuture<CachedToken> refresh = new CompletableFuture<>();
+    if (!inFlightRefresh.compareAndSet(null, refresh)) {
+      return inFlightRefresh.get();
+    }
+
+    refreshExecutor.execute(() -> {
+      try {
+        CachedToken token = toCachedToken(tokenLoader.get());
+        current = token;
+        refresh.complete(token);
+      } catch (RuntimeException e) {
+        log.warn("Unable to refresh Kinde access token", e);
+        refresh.completeExceptionally(e);
+      } finally {
+        inFlightRefresh.set(null);
+      }
+    });
+    return refresh;
+  }
+
+  private CachedToken toCachedToken(KindeAccessToken accessToken) {
+    Instant fetchedAt = clock.instant();
+    Instant expiresAt;
+    if (accessToken.expiresIn() == null) {
+      log.warn("Kinde access token has no expires_in, caching it for {}", minLifetime);
+      expiresAt = fetchedAt.plus(minLifetime);
+    } else {
+      expiresAt = fetchedAt.plusSeconds(accessToken.expiresIn()).minus(expiryMargin);
+    }
+    Instant refreshAt = expiresAt.minus(refreshAhead);
+
+    Instant minRefreshAt = fetchedAt.plus(minLifetime);
+    if (refreshAt.isBefore(minRefreshAt)) {
+      if (accessToken.expiresIn() != null) {
+        log.warn("Kinde access token expires_in ({}s) is shorter than refresh-ahead + expiry-margin + min-lifetime",
+          accessToken.expiresIn());
+      }
+      // Jamais au-delà de l'expiration réelle : le jeton garde une fenêtre de rafraîchissement en arrière-plan
+      Instant halfLife = fetchedAt.plus(Duration.between(fetchedAt, expiresAt).dividedBy(2));
+      refreshAt = minRefreshAt.isBefore(halfLife) ? minRefreshAt : halfLife;
+    }
+    return new CachedToken(accessToken.accessToken(), refreshAt, expiresAt);
+  }
+
+  private record CachedToken(String accessToken, Instant refreshAt, Instant expiresAt) {
+  }
+}
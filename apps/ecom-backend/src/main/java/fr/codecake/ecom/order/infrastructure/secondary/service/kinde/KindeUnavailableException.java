@@ -0,0 +1,15 @@
+package fr.codecake.ecom.order.infrastructure.secondary.service.kinde;
+
+/**
+ * Levée lorsque l'API Kinde ne répond pas, répond en erreur ou est protégée par le disjoncteur.
+ */
+public class KindeUnavailableException extends RuntimeException {
+
+  public KindeUnavailableException(String message) {
+    super(message);
+  }
+
+  public KindeUnavailableException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
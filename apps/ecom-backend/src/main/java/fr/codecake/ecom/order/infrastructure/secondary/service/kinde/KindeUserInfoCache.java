@@ -0,0 +1,137 @@
+package fr.codecake.ecom.order.infrastructure.secondary.service.kinde;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache borné (taille maximale + TTL) des informations utilisateur renvoyées par Kinde, indexé par le `sub` du JWT.
+ * - Les entrées les moins récemment utilisées sont évincées lorsque la taille maximale est atteinte.
+ * - Les compteurs hit/miss/eviction sont exposés comme métriques Micrometer (`cache.gets`, `cache.evictions`, `cache.size`).
+ */
+@Component
+public class KindeUserInfoCache implements MeterBinder {
+
+  private static final String CACHE_NAME = "kindeUserInfo";
+
+  private final Duration ttl;
+  private final int maxSize;
+  private final Clock clock;
+
+  // LinkedHashMap en ordre d'accès : la première entrée est la moins récemment utilisée
+  private final LinkedHashMap<String, CachedUserInfo> entries = new LinkedHashMap<>(16, 0.75f, true);
+  // ReentrantLock plutôt que synchronized : ne bloque pas le thread porteur des threads virtuels
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public KindeUserInfoCache(@Value("${application.kinde.user-info-cache.ttl:30s}") Duration ttl,
+                            @Value("${application.kinde.user-info-cache.max-size:10000}") int maxSize) {
+    this.ttl = ttl;
+    this.maxSize = maxSize;
+    this.clock = Clock.systemUTC();
+  }
+
+  /**
+   * Retourne les informations en cache pour ce `sub`, si elles ne sont pas expirées.
+   */
+  public Optional<Map<String, Object>> get(String subject) {
+    lock.lock();
+    try {
+      CachedUserInfo cached = entries.get(subject);
+      if (cached != null && clock.instant().isBefore(cached.expiresAt())) {
+        hits.increment();
+        return Optional.of(cached.userInfo());
+      }
+      if (cached != null) {
+        entries.remove(subject);
+        evictions.increment();
+      }
+      misses.increment();
+      return Optional.empty();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Ajoute (ou remplace) les informations d'un utilisateur, en évinçant les plus anciennes si besoin.
+   */
+  public void put(String subject, Map<String, Object> userInfo) {
+    if (userInfo == null || ttl.isZero() || maxSize <= 0) {
+      return;
+    }
+
+    CachedUserInfo cached = new CachedUserInfo(
+      Collections.unmodifiableMap(new LinkedHashMap<>(userInfo)), clock.instant().plus(ttl));
+
+    lock.lock();
+    try {
+      entries.put(subject, cached);
+      Iterator<CachedUserInfo> eldest = entries.values().iterator();
+      while (entries.size() > maxSize && eldest.hasNext()) {
+        eldest.next();
+        eldest.remove();
+        evictions.increment();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void invalidate(String subject) {
+    lock.lock();
+    try {
+      entries.remove(subject);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int size() {
+    lock.lock();
+    try {
+      return entries.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+      .tag("cache", CACHE_NAME).tag("result", "hit")
+      .description("Number of Kinde user info lookups served from the cache")
+      .register(registry);
+    FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+      .tag("cache", CACHE_NAME).tag("result", "miss")
+      .description("Number of Kinde user info lookups that required a call to Kinde")
+      .register(registry);
+    FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+      .tag("cache", CACHE_NAME)
+      .description("Number of Kinde user info entries evicted (size or expiration)")
+      .register(registry);
+    Gauge.builder("cache.size", this, KindeUserInfoCache::size)
+      .tag("cache", CACHE_NAME)
+      .register(registry);
+  }
+
+  private record CachedUserInfo(Map<String, Object> userInfo, Instant expiresAt) {
+  }
+}
@@ -0,0 +1,88 @@
+package fr.codecake.ecom.product.application;
+
+import fr.codecake.ecom.product.domain.aggregate.Picture;
+import fr.codecake.ecom.product.domain.aggregate.PictureMetadata;
+import fr.codecake.ecom.product.domain.aggregate.ProductSearchCriteria;
+import fr.codecake.ecom.product.domain.aggregate.ProductSearchResult;
+import fr.codecake.ecom.product.domain.repository.PictureStorage;
+import fr.codecake.ecom.product.domain.repository.PictureVariantGenerator;
+import fr.codecake.ecom.product.domain.repository.ProductRepository;
+import fr.codecake.ecom.product.domain.service.PictureUploader;
+import fr.codecake.ecom.product.domain.service.ProductCRUD;
+import fr.codecake.ecom.product.domain.vo.PictureVariant;
+import fr.codecake.ecom.product.domain.vo.PublicId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class ProductsApplicationService {
+
+  private final ProductCRUD productCRUD;
+  private final PictureUploader pictureUploader;
+  private final PictureStorage pictureStorage;
+
+  public ProductsApplicationService(ProductRepository productRepository, PictureStorage pictureStorage,
+                                    PictureVariantGenerator pictureVariantGenerator,
+                                    @Value("${application.picture-upload.max-size:20MB}") DataSize maxPictureSize) {
+    this.productCRUD = new ProductCRUD(productRepository);
+    this.pictureUploader = new PictureUploader(productRepository, pictureStorage, pictureVariantGenerator, maxPictureSize.toBytes());
+    this.pictureStorage = pictureStorage;
+  }
+
+  /**
+   * Ajoute une image au produit, lue en flux : aucune transaction n'est ouverte pendant la copie du contenu.
+   * @param announcedSize Taille connue avant lecture (ex : taille de la partie multipart), -1 si inconnue
+   * @return L'identifiant de l'image créée
+   */
+  public Long addPicture(PublicId productPublicId, long announcedSize, InputStream content) {
+    pictureUploader.checkSize(announcedSize);
+    return pictureUploader.upload(productPublicId, content);
+  }
+
+  /**
+   * Recherche à facettes dans le catalogue : page de cartes produit triées par nom et comptes par facette.
+   */
+  @Transactional(readOnly = true)
+  public ProductSearchResult search(ProductSearchCriteria criteria, Pageable pageable) {
+    return productCRUD.search(criteria, pageable);
+  }
+
+  /**
+   * Métadonnées d'une image produit. La connexion est rendue au pool avant l'envoi du contenu.
+   */
+  @Transactional(readOnly = true)
+  public Optional<Picture> getPicture(Long pictureId) {
+    return productCRUD.findPicture(pictureId);
+  }
+
+  /**
+   * Liste des images d'un produit (identifiants, types MIME, tailles), sans lire leur contenu.
+   */
+  @Transactional(readOnly = true)
+  public List<PictureMetadata> getPictures(PublicId productPublicId) {
+    return productCRUD.findPictures(productPublicId);
+  }
+
+  public Optional<Path> getPictureFile(Picture picture) {
+    return pictureStorage.localFile(picture.contentHash());
+  }
+
+  /**
+   * Fichier d'une variante réduite de l'image, vide tant qu'elle n'a pas été générée.
+   */
+  public Optional<Path> getPictureVariantFile(Picture picture, PictureVariant variant) {
+    return pictureStorage.localVariantFile(picture.contentHash(), variant);
+  }
+
+  public InputStream openPicture(Picture picture) {
+    return pictureStorage.open(picture.contentHash());
+  }
+}
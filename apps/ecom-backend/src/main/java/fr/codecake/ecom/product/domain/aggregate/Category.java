@@ -13,6 +13,9 @@ public class Category {
   private final CategoryName name;
   private Long dbId;
   private PublicId publicId;
+  // Nombre de produits de la catégorie, renseigné à la lecture depuis les compteurs en mémoire
+  @Builder.Ignore
+  private long productCount;
 
   public Category(CategoryName name, Long dbId, PublicId publicId) {
     assertMandatoryFields(name);
@@ -25,7 +28,7 @@ public class Category {
     this.publicId = new PublicId(UUID.randomUUID());
   }
   private void assertMandatoryFields(CategoryName categoryName){
-    Assert.notNull("name", name);
+    Assert.notNull("name", categoryName);
   }
 
   public CategoryName getName() {
@@ -47,4 +50,12 @@ public class Category {
   public void setPublicId(PublicId publicId) {
     this.publicId = publicId;
   }
+
+  public long getProductCount() {
+    return productCount;
+  }
+
+  public void setProductCount(long productCount) {
+    this.productCount = productCount;
+  }
 }
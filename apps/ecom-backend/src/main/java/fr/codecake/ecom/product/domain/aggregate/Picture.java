@@ -3,12 +3,19 @@ package fr.codecake.ecom.product.domain.aggregate;
 import fr.codecake.ecom.shared.error.domain.Assert;
 import org.jilt.Builder;
 
+/**
+ * Image d'un produit.
+ * - `file` : contenu d'une image reçue, pas encore enregistrée.
+ * - `contentHash` : empreinte SHA-256 d'une image déjà enregistrée, dont le contenu se lit avec `PictureStorage`.
+ */
 @Builder
-public record Picture(byte[] file, String mimeType) {
+public record Picture(byte[] file, String mimeType, String contentHash) {
 
   public Picture{
-    Assert.notNull("file", file);
     Assert.notNull("mimeType", mimeType);
+    if (contentHash == null) {
+      Assert.notNull("file", file);
+    }
   }
 
 
@@ -0,0 +1,20 @@
+package fr.codecake.ecom.product.domain.aggregate;
+
+import fr.codecake.ecom.shared.error.domain.Assert;
+
+/**
+ * Description d'une image produit, sans son contenu : de quoi afficher la liste des images d'un produit
+ * et construire leurs URL, le contenu étant téléchargé séparément.
+ *
+ * @param id Identifiant de l'image
+ * @param contentHash Empreinte SHA-256 du contenu (ETag)
+ * @param size Taille du contenu en octets
+ */
+public record PictureMetadata(Long id, String mimeType, String contentHash, long size) {
+
+  public PictureMetadata {
+    Assert.notNull("id", id);
+    Assert.notNull("mimeType", mimeType);
+    Assert.notNull("contentHash", contentHash);
+  }
+}
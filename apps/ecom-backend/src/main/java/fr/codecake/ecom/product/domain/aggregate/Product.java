@@ -11,13 +11,14 @@ import java.util.UUID;
 public class Product {
 
   private final ProductBrand productBrand;
-  private final ProductColor productColor;
+  private final ProductColor color;
   private final ProductDescription description;
   private final ProductName name;
   private final ProductPrice price;
   private final ProductSize size;
   private final Category category;
   private final List<Picture> pictures;
+  private Long dbId;
   private boolean featured;
   private PublicId publicId;
   private int nbInStock;
@@ -27,7 +28,7 @@ public class Product {
                  List<Picture> pictures, Long dbId, boolean featured, PublicId publicId, int nbInStock) {
     assertMandatoryFields(brand,color, description,name,price,size,category,pictures,featured,nbInStock);
     this.productBrand = brand;
-    this.productColor = color;
+    this.color = color;
     this.description = description;
     this.name = name;
     this.price = price;
@@ -56,14 +57,13 @@ public class Product {
     Assert.notNull("featured",featured);
     Assert.notNull("nbInStock",nbInStock);
   }
-  private Long dbId;
 
   public ProductBrand getProductBrand() {
     return productBrand;
   }
 
   public ProductColor getColor() {
-    return productColor;
+    return color;
   }
 
   public ProductDescription getDescription() {
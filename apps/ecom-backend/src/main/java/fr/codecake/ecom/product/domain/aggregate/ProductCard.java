@@ -0,0 +1,29 @@
+package fr.codecake.ecom.product.domain.aggregate;
+
+import fr.codecake.ecom.product.domain.vo.PictureVariant;
+import fr.codecake.ecom.product.domain.vo.ProductBrand;
+import fr.codecake.ecom.product.domain.vo.ProductColor;
+import fr.codecake.ecom.product.domain.vo.ProductName;
+import fr.codecake.ecom.product.domain.vo.ProductPrice;
+import fr.codecake.ecom.product.domain.vo.ProductSize;
+import fr.codecake.ecom.product.domain.vo.PublicId;
+import fr.codecake.ecom.shared.error.domain.Assert;
+
+/**
+ * Vue allégée d'un produit pour l'affichage du catalogue (carte produit).
+ * Ne contient ni la description, ni la catégorie, ni le contenu des images :
+ * seulement l'identifiant de la première image, chargée séparément par le client dans sa variante `PICTURE_VARIANT`.
+ *
+ * @param firstPictureId Identifiant de la première image du produit, null si le produit n'a pas d'image
+ */
+public record ProductCard(PublicId publicId, ProductName name, ProductPrice price, ProductBrand brand,
+                          ProductColor color, ProductSize size, Long firstPictureId) {
+
+  // Variante de la première image affichée sur une carte (quelques dizaines de Ko au lieu de l'original)
+  public static final PictureVariant PICTURE_VARIANT = PictureVariant.CARD;
+
+  public ProductCard {
+    Assert.notNull("publicId", publicId);
+    Assert.notNull("name", name);
+  }
+}
@@ -0,0 +1,21 @@
+package fr.codecake.ecom.product.domain.aggregate;
+
+import fr.codecake.ecom.product.domain.vo.ProductBrand;
+import fr.codecake.ecom.product.domain.vo.ProductColor;
+import fr.codecake.ecom.product.domain.vo.ProductSize;
+import fr.codecake.ecom.product.domain.vo.PublicId;
+
+import java.util.Map;
+
+/**
+ * Nombre de produits par valeur de chaque dimension de recherche.
+ * Les comptes d'une dimension appliquent tous les filtres sauf le sien : cocher une marque ne fait pas
+ * disparaître les autres marques de la liste. Seules les valeurs ayant au moins un produit sont présentes.
+ *
+ * @param featured Nombre de produits mis en avant
+ * @param minPrice Prix le plus bas des produits (filtre de prix exclu), null s'il n'y en a aucun
+ * @param maxPrice Prix le plus haut des produits (filtre de prix exclu), null s'il n'y en a aucun
+ */
+public record ProductFacets(Map<ProductBrand, Long> brands, Map<ProductColor, Long> colors, Map<ProductSize, Long> sizes,
+                            Map<PublicId, Long> categories, long featured, Double minPrice, Double maxPrice) {
+}
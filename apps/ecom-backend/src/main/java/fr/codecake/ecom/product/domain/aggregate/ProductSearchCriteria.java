@@ -0,0 +1,41 @@
+package fr.codecake.ecom.product.domain.aggregate;
+
+import fr.codecake.ecom.product.domain.vo.ProductBrand;
+import fr.codecake.ecom.product.domain.vo.ProductColor;
+import fr.codecake.ecom.product.domain.vo.ProductSize;
+import fr.codecake.ecom.product.domain.vo.PublicId;
+import fr.codecake.ecom.shared.error.domain.Assert;
+import org.jilt.Builder;
+
+import java.util.Set;
+
+/**
+ * Filtres d'une recherche de produits.
+ * - Plusieurs valeurs d'une même dimension se combinent en OU (marque A ou marque B), les dimensions en ET.
+ * - Une dimension vide (ou null) ne filtre pas.
+ *
+ * @param minPrice Prix minimal inclus, null si pas de borne
+ * @param maxPrice Prix maximal inclus, null si pas de borne
+ * @param featured Produits mis en avant (true) ou non (false), null pour les deux
+ */
+@Builder
+public record ProductSearchCriteria(Set<ProductBrand> brands, Set<ProductColor> colors, Set<ProductSize> sizes,
+                                    Double minPrice, Double maxPrice, Boolean featured, Set<PublicId> categories) {
+
+  public ProductSearchCriteria {
+    brands = brands == null ? Set.of() : Set.copyOf(brands);
+    colors = colors == null ? Set.of() : Set.copyOf(colors);
+    sizes = sizes == null ? Set.of() : Set.copyOf(sizes);
+    categories = categories == null ? Set.of() : Set.copyOf(categories);
+    if (minPrice != null) {
+      Assert.field("minPrice", minPrice).positive();
+    }
+    if (maxPrice != null) {
+      Assert.field("maxPrice", maxPrice).min(minPrice == null ? 0 : minPrice);
+    }
+  }
+
+  public boolean hasPriceRange() {
+    return minPrice != null || maxPrice != null;
+  }
+}
@@ -0,0 +1,9 @@
+package fr.codecake.ecom.product.domain.aggregate;
+
+import org.springframework.data.domain.Page;
+
+/**
+ * Page de cartes produit correspondant à une recherche (triées par nom), et comptes par facette.
+ */
+public record ProductSearchResult(Page<ProductCard> products, ProductFacets facets) {
+}
@@ -0,0 +1,167 @@
+package fr.codecake.ecom.product.domain.infrastructure.primary;
+
+import fr.codecake.ecom.product.application.ProductsApplicationService;
+import fr.codecake.ecom.product.domain.aggregate.Picture;
+import fr.codecake.ecom.product.domain.vo.PictureVariant;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Envoi du contenu des images produit.
+ * - Le contenu n'est jamais chargé en mémoire : Tomcat l'envoie directement depuis le fichier (sendfile)
+ *   quand le connecteur le permet, sinon il est transféré par `FileChannel.transferTo`.
+ * - `ETag` = empreinte SHA-256 du contenu : une image ne change jamais, d'où `Cache-Control: immutable`
+ *   et une réponse 304 aux requêtes conditionnelles (`If-None-Match`).
+ * - `Range` : une seule plage par requête (réponse 206) ; plusieurs plages donnent le contenu complet.
+ * - `?variant=THUMBNAIL|CARD|DETAIL` : version réduite en JPEG. Tant qu'elle n'est pas générée, l'original est
+ *   envoyé avec un cache court, pour que le client récupère la variante ensuite.
+ */
+@RestController
+@RequestMapping("/api/pictures")
+public class PicturesResource {
+
+  // Attributs de requête de Tomcat pour l'envoi par sendfile (voir DefaultServlet)
+  private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+  private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+  private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+  private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+  private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+  private static final CacheControl PENDING_VARIANT = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic();
+
+  private final ProductsApplicationService productsApplicationService;
+
+  public PicturesResource(ProductsApplicationService productsApplicationService) {
+    this.productsApplicationService = productsApplicationService;
+  }
+
+  @GetMapping("/{pictureId}")
+  public void getPicture(@PathVariable Long pictureId, @RequestParam(required = false) PictureVariant variant,
+                         ServletWebRequest webRequest) throws IOException {
+    Picture picture = productsApplicationService.getPicture(pictureId)
+      .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, String.format("No picture found with id %s", pictureId)));
+
+    HttpServletResponse response = webRequest.getResponse();
+    if (variant != null) {
+      Optional<Path> variantFile = productsApplicationService.getPictureVariantFile(picture, variant);
+      if (variantFile.isPresent()) {
+        String eTag = "\"" + picture.contentHash() + "-" + variant.name().toLowerCase(Locale.ROOT) + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE.getHeaderValue());
+        if (!webRequest.checkNotModified(eTag)) {
+          response.setContentType(PictureVariant.MIME_TYPE);
+          sendFile(webRequest.getRequest(), response, variantFile.get(), eTag);
+        }
+        return;
+      }
+    }
+
+    String eTag = "\"" + picture.contentHash() + "\"";
+    response.setHeader(HttpHeaders.CACHE_CONTROL, (variant == null ? IMMUTABLE : PENDING_VARIANT).getHeaderValue());
+    // Positionne l'ETag et répond 304 si le client a déjà ce contenu
+    if (webRequest.checkNotModified(eTag)) {
+      return;
+    }
+    response.setContentType(picture.mimeType());
+
+    Optional<Path> file = productsApplicationService.getPictureFile(picture);
+    if (file.isEmpty()) {
+      // Stockage distant : envoi en flux, sans gestion des plages
+      try (InputStream content = productsApplicationService.openPicture(picture)) {
+        content.transferTo(response.getOutputStream());
+      }
+      return;
+    }
+
+    sendFile(webRequest.getRequest(), response, file.get(), eTag);
+  }
+
+  private static void sendFile(HttpServletRequest request, HttpServletResponse response, Path file, String eTag) throws IOException {
+    long length = Files.size(file);
+    long start = 0;
+    long end = length - 1;
+
+    response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+    HttpRange range = requestedRange(request, eTag);
+    if (range != null) {
+      start = range.getRangeStart(length);
+      end = range.getRangeEnd(length);
+      if (start >= length || start > end) {
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+        response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+        return;
+      }
+      response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+      response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+    }
+    response.setContentLengthLong(end - start + 1);
+
+    if (HttpMethod.HEAD.matches(request.getMethod()) || length == 0) {
+      return;
+    }
+
+    if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+      // Tomcat envoie lui-même le fichier après le retour de la méthode (fin de plage exclusive)
+      request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+      request.setAttribute(SENDFILE_START, start);
+      request.setAttribute(SENDFILE_END, end + 1);
+      return;
+    }
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+      long position = start;
+      long remaining = end - start + 1;
+      while (remaining > 0) {
+        long transferred = channel.transferTo(position, remaining, out);
+        position += transferred;
+        remaining -= transferred;
+      }
+    }
+  }
+
+  /**
+   * Plage demandée, ou null si le contenu complet doit être envoyé :
+   * pas d'en-tête `Range`, plusieurs plages, en-tête invalide, ou `If-Range` ne correspondant pas au contenu.
+   */
+  private static HttpRange requestedRange(HttpServletRequest request, String eTag) {
+    String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+    if (rangeHeader == null) {
+      return null;
+    }
+    String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+    if (ifRange != null && !ifRange.equals(eTag)) {
+      return null;
+    }
+    try {
+      List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+      return ranges.size() == 1 ? ranges.getFirst() : null;
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package fr.codecake.ecom.product.domain.infrastructure.primary;
+
+import fr.codecake.ecom.product.application.ProductsApplicationService;
+import fr.codecake.ecom.product.domain.vo.PublicId;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ajout d'images à un produit.
+ * Les parties multipart sont écrites sur disque par le conteneur (`spring.servlet.multipart.file-size-threshold: 0`)
+ * puis relues en flux une par une : aucun fichier n'est chargé entièrement en mémoire.
+ */
+@RestController
+@RequestMapping("/api/products/{productPublicId}/pictures")
+public class ProductPicturesResource {
+
+  private final ProductsApplicationService productsApplicationService;
+
+  public ProductPicturesResource(ProductsApplicationService productsApplicationService) {
+    this.productsApplicationService = productsApplicationService;
+  }
+
+  @GetMapping
+  public ResponseEntity<List<RestPicture>> getPictures(@PathVariable UUID productPublicId) {
+    List<RestPicture> pictures = productsApplicationService.getPictures(new PublicId(productPublicId)).stream()
+      .map(RestPicture::from)
+      .toList();
+    return ResponseEntity.ok(pictures);
+  }
+
+  @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+  public ResponseEntity<List<Long>> addPictures(@PathVariable UUID productPublicId,
+                                                @RequestParam("files") List<MultipartFile> files) throws IOException {
+    PublicId publicId = new PublicId(productPublicId);
+    List<Long> pictureIds = new ArrayList<>(files.size());
+    for (MultipartFile file : files) {
+      try (InputStream content = file.getInputStream()) {
+        pictureIds.add(productsApplicationService.addPicture(publicId, file.getSize(), content));
+      }
+    }
+    return ResponseEntity.status(HttpStatus.CREATED).body(pictureIds);
+  }
+}
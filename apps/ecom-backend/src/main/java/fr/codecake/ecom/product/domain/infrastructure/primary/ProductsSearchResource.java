@@ -0,0 +1,63 @@
+package fr.codecake.ecom.product.domain.infrastructure.primary;
+
+import fr.codecake.ecom.product.application.ProductsApplicationService;
+import fr.codecake.ecom.product.domain.aggregate.ProductSearchCriteria;
+import fr.codecake.ecom.product.domain.aggregate.ProductSearchCriteriaBuilder;
+import fr.codecake.ecom.product.domain.vo.ProductBrand;
+import fr.codecake.ecom.product.domain.vo.ProductColor;
+import fr.codecake.ecom.product.domain.vo.ProductSize;
+import fr.codecake.ecom.product.domain.vo.PublicId;
+import fr.codecake.ecom.shared.error.domain.UnsupportedSortException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Recherche à facettes dans le catalogue.
+ * Chaque filtre peut être répété (`?brand=A&brand=B`) ; la taille du produit se filtre avec `productSize`,
+ * `size` étant la taille de la page. Les résultats sont toujours triés par nom (ordre de l'index) :
+ * un paramètre `sort` est refusé (400) plutôt qu'ignoré silencieusement.
+ */
+@RestController
+@RequestMapping("/api/products/search")
+public class ProductsSearchResource {
+
+  private final ProductsApplicationService productsApplicationService;
+
+  public ProductsSearchResource(ProductsApplicationService productsApplicationService) {
+    this.productsApplicationService = productsApplicationService;
+  }
+
+  @GetMapping
+  public ResponseEntity<RestProductSearchResult> search(@RequestParam(name = "brand", required = false) List<String> brands,
+                                                        @RequestParam(name = "color", required = false) List<String> colors,
+                                                        @RequestParam(name = "productSize", required = false) List<ProductSize> sizes,
+                                                        @RequestParam(required = false) Double minPrice,
+                                                        @RequestParam(required = false) Double maxPrice,
+                                                        @RequestParam(required = false) Boolean featured,
+                                                        @RequestParam(name = "category", required = false) List<UUID> categories,
+                                                        @PageableDefault(size = 20) Pageable pageable) {
+    if (pageable.getSort().isSorted()) {
+      throw new UnsupportedSortException("sort", "Search results are always sorted by name");
+    }
+    ProductSearchCriteria criteria = ProductSearchCriteriaBuilder.productSearchCriteria()
+      .brands(brands == null ? null : brands.stream().map(ProductBrand::new).collect(Collectors.toSet()))
+      .colors(colors == null ? null : colors.stream().map(ProductColor::new).collect(Collectors.toSet()))
+      .sizes(sizes == null ? null : Set.copyOf(sizes))
+      .minPrice(minPrice)
+      .maxPrice(maxPrice)
+      .featured(featured)
+      .categories(categories == null ? null : categories.stream().map(PublicId::new).collect(Collectors.toSet()))
+      .build();
+    return ResponseEntity.ok(RestProductSearchResult.from(productsApplicationService.search(criteria, pageable)));
+  }
+}
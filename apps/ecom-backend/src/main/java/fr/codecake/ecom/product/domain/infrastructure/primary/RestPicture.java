@@ -0,0 +1,21 @@
+package fr.codecake.ecom.product.domain.infrastructure.primary;
+
+import fr.codecake.ecom.product.domain.aggregate.PictureMetadata;
+import org.jilt.Builder;
+
+/**
+ * Image d'un produit exposée par l'API : le contenu se télécharge à l'adresse `url`
+ * (suivie de `?variant=...` pour une version réduite).
+ */
+@Builder
+public record RestPicture(Long id, String mimeType, long size, String url) {
+
+  public static RestPicture from(PictureMetadata picture) {
+    return RestPictureBuilder.restPicture()
+      .id(picture.id())
+      .mimeType(picture.mimeType())
+      .size(picture.size())
+      .url("/api/pictures/" + picture.id())
+      .build();
+  }
+}
@@ -0,0 +1,28 @@
+package fr.codecake.ecom.product.domain.infrastructure.primary;
+
+import fr.codecake.ecom.product.domain.aggregate.ProductCard;
+import fr.codecake.ecom.product.domain.vo.ProductSize;
+import org.jilt.Builder;
+
+import java.util.UUID;
+
+/**
+ * Carte produit exposée par l'API. `pictureUrl` pointe sur la variante carte de la première image, null sans image.
+ */
+@Builder
+public record RestProductCard(UUID publicId, String name, Double price, String brand, String color, ProductSize size,
+                              String pictureUrl) {
+
+  public static RestProductCard from(ProductCard card) {
+    return RestProductCardBuilder.restProductCard()
+      .publicId(card.publicId().value())
+      .name(card.name().value())
+      .price(card.price() == null ? null : card.price().value())
+      .brand(card.brand() == null ? null : card.brand().value())
+      .color(card.color() == null ? null : card.color().value())
+      .size(card.size())
+      .pictureUrl(card.firstPictureId() == null ? null
+        : "/api/pictures/" + card.firstPictureId() + "?variant=" + ProductCard.PICTURE_VARIANT.name())
+      .build();
+  }
+}
@@ -0,0 +1,36 @@
+package fr.codecake.ecom.product.domain.infrastructure.primary;
+
+import fr.codecake.ecom.product.domain.aggregate.ProductFacets;
+import fr.codecake.ecom.product.domain.vo.ProductBrand;
+import fr.codecake.ecom.product.domain.vo.ProductColor;
+import fr.codecake.ecom.product.domain.vo.ProductSize;
+import fr.codecake.ecom.product.domain.vo.PublicId;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Comptes par facette exposés par l'API, dans l'ordre de ProductFacets (tailles de XS à XXL, autres par compte décroissant).
+ */
+public record RestProductFacets(Map<String, Long> brands, Map<String, Long> colors, Map<ProductSize, Long> sizes,
+                                Map<UUID, Long> categories, long featured, Double minPrice, Double maxPrice) {
+
+  public static RestProductFacets from(ProductFacets facets) {
+    return new RestProductFacets(
+      keys(facets.brands(), ProductBrand::value),
+      keys(facets.colors(), ProductColor::value),
+      facets.sizes(),
+      keys(facets.categories(), PublicId::value),
+      facets.featured(),
+      facets.minPrice(),
+      facets.maxPrice());
+  }
+
+  private static <K, R> Map<R, Long> keys(Map<K, Long> counts, Function<K, R> key) {
+    Map<R, Long> converted = new LinkedHashMap<>();
+    counts.forEach((value, count) -> converted.put(key.apply(value), count));
+    return converted;
+  }
+}
@@ -0,0 +1,22 @@
+package fr.codecake.ecom.product.domain.infrastructure.primary;
+
+import fr.codecake.ecom.product.domain.aggregate.ProductSearchResult;
+
+import java.util.List;
+
+/**
+ * Résultat d'une recherche exposé par l'API : page de cartes produit et comptes par facette.
+ */
+public record RestProductSearchResult(List<RestProductCard> products, int page, int size, long totalElements,
+                                      int totalPages, RestProductFacets facets) {
+
+  public static RestProductSearchResult from(ProductSearchResult result) {
+    return new RestProductSearchResult(
+      result.products().getContent().stream().map(RestProductCard::from).toList(),
+      result.products().getNumber(),
+      result.products().getSize(),
+      result.products().getTotalElements(),
+      result.products().getTotalPages(),
+      RestProductFacets.from(result.facets()));
+  }
+}
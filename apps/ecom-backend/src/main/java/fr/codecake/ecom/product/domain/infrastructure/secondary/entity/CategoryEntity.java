@@ -22,10 +22,11 @@ public class CategoryEntity extends AbstractAuditingEntity<Long> { // Hérite de
 
   /**
    * Clé primaire de la table, générée via une séquence.
+   * Les valeurs sont réservées par blocs de 50 (même incrément que `product_category_sequence`).
    */
   @Id
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "categorySequence")
-  @SequenceGenerator(name = "categorySequence", sequenceName = "product_category_sequence", allocationSize = 1)
+  @SequenceGenerator(name = "categorySequence", sequenceName = "product_category_sequence", allocationSize = 50)
   @Column(name = "id")
   private Long id;
 
@@ -6,6 +6,8 @@ import fr.codecake.ecom.product.domain.aggregate.Picture;
 import fr.codecake.ecom.product.domain.aggregate.PictureBuilder;
 import fr.codecake.ecom.shared.jpa.AbstractAuditingEntity;
 import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import org.jilt.Builder;
 
 import java.util.List;
@@ -23,20 +25,26 @@ public class PictureEntity extends AbstractAuditingEntity<Long> {
 
   /**
    * Clé primaire auto-générée via une séquence.
+   * Les valeurs sont réservées par blocs de 50 (même incrément que `product_picture_sequence`).
    */
   @Id
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pictureSequence")
-  @SequenceGenerator(name = "pictureSequence", sequenceName = "product_picture_sequence", allocationSize = 1)
+  @SequenceGenerator(name = "pictureSequence", sequenceName = "product_picture_sequence", allocationSize = 50)
   @Column(name = "id")
   private Long id;
 
   /**
-   * Contenu binaire de l'image.
-   * L'annotation @Lob indique que ce champ peut contenir de grandes données binaires.
+   * Empreinte SHA-256 du contenu de l'image.
+   * Le contenu lui-même est hors de la base, dans `PictureStorage`, rangé sous cette empreinte.
    */
-  @Lob
-  @Column(name = "file", nullable = false)
-  private byte[] file;
+  @Column(name = "content_hash", nullable = false, length = 64)
+  private String contentHash;
+
+  /**
+   * Taille du contenu en octets.
+   */
+  @Column(name = "file_size", nullable = false)
+  private long fileSize;
 
   /**
    * Type MIME du fichier image (ex: "image/png", "image/jpeg").
@@ -51,6 +59,7 @@ public class PictureEntity extends AbstractAuditingEntity<Long> {
    */
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "product_fk", nullable = false) // Clé étrangère pointant vers `ProductEntity`
+  @OnDelete(action = OnDeleteAction.CASCADE) // Comme la contrainte fk_product_picture_constraint : supprimée avec le produit
   private ProductEntity product;
 
   /**
@@ -62,19 +71,21 @@ public class PictureEntity extends AbstractAuditingEntity<Long> {
   /**
    * Constructeur avec paramètres.
    */
-  public PictureEntity(Long id, byte[] file, String mimeType, ProductEntity product) {
+  public PictureEntity(Long id, String contentHash, long fileSize, String mimeType, ProductEntity product) {
     this.id = id;
-    this.file = file;
+    this.contentHash = contentHash;
+    this.fileSize = fileSize;
     this.mimeType = mimeType;
     this.product = product;
   }
 
   /**
    * Convertit un objet métier `Picture` en `PictureEntity` pour la persistance en base.
+   * L'empreinte et la taille d'une nouvelle image sont renseignées une fois son contenu enregistré (voir `PictureStorage`).
    */
   public static PictureEntity from(Picture picture) {
     return PictureEntityBuilder.pictureEntity()
-      .file(picture.file())
+      .contentHash(picture.contentHash())
       .mimeType(picture.mimeType())
       .build();
   }
@@ -84,7 +95,7 @@ public class PictureEntity extends AbstractAuditingEntity<Long> {
    */
   public static Picture to(PictureEntity pictureEntity) {
     return PictureBuilder.picture()
-      .file(pictureEntity.getFile())
+      .contentHash(pictureEntity.getContentHash())
       .mimeType(pictureEntity.getMimeType())
       .build();
   }
@@ -114,12 +125,20 @@ public class PictureEntity extends AbstractAuditingEntity<Long> {
     this.id = id;
   }
 
-  public byte[] getFile() {
-    return file;
+  public String getContentHash() {
+    return contentHash;
+  }
+
+  public void setContentHash(String contentHash) {
+    this.contentHash = contentHash;
+  }
+
+  public long getFileSize() {
+    return fileSize;
   }
 
-  public void setFile(byte[] file) {
-    this.file = file;
+  public void setFileSize(long fileSize) {
+    this.fileSize = fileSize;
   }
 
   public String getMimeType() {
@@ -140,13 +159,13 @@ public class PictureEntity extends AbstractAuditingEntity<Long> {
 
   /**
    * Vérifie l'égalité entre deux objets `PictureEntity`.
-   * L'égalité est basée uniquement sur l'identifiant `id`.
+   * L'égalité est basée uniquement sur l'identifiant `id` : deux images pas encore enregistrées sont différentes.
    */
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
     if (!(o instanceof PictureEntity that)) return false;
-    return Objects.equals(id, that.id);
+    return id != null && Objects.equals(id, that.id);
   }
 
   /**
@@ -23,10 +23,11 @@ public class ProductEntity extends AbstractAuditingEntity<Long> { // Hérite des
 
   /**
    * Clé primaire auto-générée via une séquence.
+   * Les valeurs sont réservées par blocs de 50 (même incrément que `product_sequence`).
    */
   @Id
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productSequence")
-  @SequenceGenerator(name = "productSequence", sequenceName = "product_sequence", allocationSize = 1)
+  @SequenceGenerator(name = "productSequence", sequenceName = "product_sequence", allocationSize = 50)
   @Column(name = "id")
   private Long id;
 
@@ -0,0 +1,98 @@
+package fr.codecake.ecom.product.domain.infrastructure.secondary.repository;
+
+import fr.codecake.ecom.product.domain.infrastructure.secondary.entity.CategoryEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Catalogue des catégories en mémoire : les menus sont servis sans requête en base.
+ * - La photographie (CategoryCatalogSnapshot) est chargée au premier accès, puis remplacée d'un bloc
+ *   (référence volatile) : un lecteur voit l'ancienne ou la nouvelle, jamais un mélange.
+ * - Rechargée après le commit de chaque ajout ou suppression de catégorie sur ce nœud,
+ *   et périodiquement (`application.category-catalog.refresh-interval`) pour les modifications faites sur les autres.
+ * - Les rechargements sont faits l'un après l'autre sous verrou : un rechargement commencé avant un commit
+ *   ne peut pas écraser celui qui suit ce commit.
+ */
+@Component
+public class CategoryCatalogCache {
+
+  private static final Logger log = LoggerFactory.getLogger(CategoryCatalogCache.class);
+
+  private final JpaCategoryRepository jpaCategoryRepository;
+  private final TransactionTemplate readOnlyTransactionTemplate;
+
+  private volatile CategoryCatalogSnapshot snapshot;
+  // ReentrantLock plutôt que synchronized : ne bloque pas le thread porteur des threads virtuels
+  private final ReentrantLock refreshLock = new ReentrantLock();
+
+  public CategoryCatalogCache(JpaCategoryRepository jpaCategoryRepository, PlatformTransactionManager transactionManager) {
+    this.jpaCategoryRepository = jpaCategoryRepository;
+    this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+  }
+
+  CategoryCatalogSnapshot snapshot() {
+    CategoryCatalogSnapshot current = snapshot;
+    if (current != null) {
+      return current;
+    }
+    refreshLock.lock();
+    try {
+      return snapshot != null ? snapshot : load();
+    } finally {
+      refreshLock.unlock();
+    }
+  }
+
+  /**
+   * Recharge la photographie après le commit de la transaction en cours (ou immédiatement s'il n'y en a pas).
+   */
+  void refreshAfterCommit() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          refresh();
+        }
+      });
+    } else {
+      refresh();
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${application.category-catalog.refresh-interval:5m}")
+  void refreshPeriodically() {
+    // Rien à rafraîchir tant que personne n'a lu le catalogue
+    if (snapshot != null) {
+      refresh();
+    }
+  }
+
+  void refresh() {
+    refreshLock.lock();
+    try {
+      load();
+    } catch (RuntimeException e) {
+      // L'ancienne photographie reste servie jusqu'au prochain rechargement
+      log.warn("Unable to refresh category catalog", e);
+    } finally {
+      refreshLock.unlock();
+    }
+  }
+
+  // Appelé avec le verrou
+  private CategoryCatalogSnapshot load() {
+    CategoryCatalogSnapshot loaded = readOnlyTransactionTemplate.execute(status -> new CategoryCatalogSnapshot(
+      jpaCategoryRepository.findAll(CategoryCatalogSnapshot.ORDER).stream().map(CategoryEntity::to).toList()));
+    snapshot = loaded;
+    return loaded;
+  }
+}
@@ -0,0 +1,77 @@
+package fr.codecake.ecom.product.domain.infrastructure.secondary.repository;
+
+import fr.codecake.ecom.product.domain.aggregate.Category;
+import fr.codecake.ecom.product.domain.aggregate.CategoryBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Photographie immuable de toutes les catégories, construite en une lecture de `product_category`.
+ * - Catégories gardées dans l'ordre de la lecture (ORDER), donc dans la collation de la base :
+ *   les pages servies depuis la photographie sont identiques à celles lues en base. Aucun tri Java.
+ * - Indexées par identifiant public.
+ * - Les `Category` étant modifiables, chaque lecture retourne des copies.
+ */
+final class CategoryCatalogSnapshot {
+
+  static final Sort ORDER = Sort.by("name", "id");
+
+  private final List<Category> categories;
+  private final Map<UUID, Category> categoriesByPublicId;
+
+  /**
+   * @param categories Catégories lues avec le tri ORDER
+   */
+  CategoryCatalogSnapshot(List<Category> categories) {
+    this.categories = categories.stream().map(CategoryCatalogSnapshot::copy).toList();
+    Map<UUID, Category> byPublicId = new HashMap<>();
+    this.categories.forEach(category -> byPublicId.put(category.getPublicId().value(), category));
+    this.categoriesByPublicId = Map.copyOf(byPublicId);
+  }
+
+  List<Category> all() {
+    return categories.stream().map(CategoryCatalogSnapshot::copy).toList();
+  }
+
+  Optional<Category> get(UUID publicId) {
+    return Optional.ofNullable(categoriesByPublicId.get(publicId)).map(CategoryCatalogSnapshot::copy);
+  }
+
+  /**
+   * Page de catégories dans l'ordre de la photographie.
+   * Vide si la page demande un autre tri : elle doit alors être lue en base.
+   */
+  Optional<Page<Category>> page(Pageable pageable) {
+    Sort sort = pageable.getSort();
+    if (sort.isSorted() && !sort.equals(Sort.by("name")) && !sort.equals(ORDER)) {
+      return Optional.empty();
+    }
+    if (pageable.isUnpaged()) {
+      return Optional.of(new PageImpl<>(all(), pageable, categories.size()));
+    }
+    int from = (int) Math.min(pageable.getOffset(), categories.size());
+    int to = Math.min(from + pageable.getPageSize(), categories.size());
+    List<Category> content = categories.subList(from, to).stream().map(CategoryCatalogSnapshot::copy).toList();
+    return Optional.of(new PageImpl<>(content, pageable, categories.size()));
+  }
+
+  int size() {
+    return categories.size();
+  }
+
+  private static Category copy(Category category) {
+    return CategoryBuilder.category()
+      .name(category.getName())
+      .dbId(category.getDbId())
+      .publicId(category.getPublicId())
+      .build();
+  }
+}
@@ -0,0 +1,7 @@
+package fr.codecake.ecom.product.domain.infrastructure.secondary.repository;
+
+/**
+ * Nombre de produits d'une catégorie (expression constructeur JPQL du recomptage `GROUP BY category_fk`).
+ */
+public record CategoryProductCount(Long categoryId, long productCount) {
+}
@@ -0,0 +1,114 @@
+package fr.codecake.ecom.product.domain.infrastructure.secondary.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Nombre de produits par catégorie, tenu en mémoire : les menus affichent « Chemises (1 243) »
+ * sans `GROUP BY category_fk` à chaque lecture.
+ * - Les compteurs sont calculés en une requête au premier accès, puis ajustés après le commit
+ *   de chaque ajout ou suppression de produit sur ce nœud (LongAdder : pas de contention entre écritures).
+ * - Recalculés périodiquement (`application.category-product-counts.rebuild-interval`) pour prendre en compte
+ *   les modifications faites sur les autres nœuds, et corriger un ajustement perdu pendant un recalcul.
+ */
+@Component
+public class CategoryProductCounts {
+
+  private static final Logger log = LoggerFactory.getLogger(CategoryProductCounts.class);
+
+  private final JpaProductRepository jpaProductRepository;
+  private final TransactionTemplate readOnlyTransactionTemplate;
+
+  private volatile Map<Long, LongAdder> counts;
+  // ReentrantLock plutôt que synchronized : ne bloque pas le thread porteur des threads virtuels
+  private final ReentrantLock rebuildLock = new ReentrantLock();
+
+  public CategoryProductCounts(JpaProductRepository jpaProductRepository, PlatformTransactionManager transactionManager) {
+    this.jpaProductRepository = jpaProductRepository;
+    this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+  }
+
+  long get(Long categoryId) {
+    LongAdder count = categoryId == null ? null : counts().get(categoryId);
+    return count == null ? 0 : Math.max(count.sum(), 0);
+  }
+
+  /**
+   * Ajuste le compteur de la catégorie après le commit de la transaction en cours (ou immédiatement s'il n'y en a pas).
+   */
+  void addAfterCommit(Long categoryId, long delta) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          add(categoryId, delta);
+        }
+      });
+    } else {
+      add(categoryId, delta);
+    }
+  }
+
+  private void add(Long categoryId, long delta) {
+    Map<Long, LongAdder> current = counts;
+    // Pas encore calculés : le premier calcul lira ce produit en base
+    if (current != null && categoryId != null) {
+      current.computeIfAbsent(categoryId, id -> new LongAdder()).add(delta);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${application.category-product-counts.rebuild-interval:15m}")
+  void rebuildPeriodically() {
+    // Rien à recalculer tant que personne n'a lu les compteurs
+    if (counts != null) {
+      rebuild();
+    }
+  }
+
+  void rebuild() {
+    rebuildLock.lock();
+    try {
+      load();
+    } catch (RuntimeException e) {
+      // Les compteurs actuels restent servis jusqu'au prochain recalcul
+      log.warn("Unable to rebuild category product counts", e);
+    } finally {
+      rebuildLock.unlock();
+    }
+  }
+
+  private Map<Long, LongAdder> counts() {
+    Map<Long, LongAdder> current = counts;
+    if (current != null) {
+      return current;
+    }
+    rebuildLock.lock();
+    try {
+      return counts != null ? counts : load();
+    } finally {
+      rebuildLock.unlock();
+    }
+  }
+
+  // Appelé avec le verrou
+  private Map<Long, LongAdder> load() {
+    Map<Long, LongAdder> loaded = new ConcurrentHashMap<>();
+    readOnlyTransactionTemplate.executeWithoutResult(status -> jpaProductRepository.countByCategory().stream()
+      .filter(row -> row.categoryId() != null) // produits sans catégorie
+      .forEach(row -> loaded.computeIfAbsent(row.categoryId(), id -> new LongAdder()).add(row.productCount())));
+    counts = loaded;
+    return loaded;
+  }
+}
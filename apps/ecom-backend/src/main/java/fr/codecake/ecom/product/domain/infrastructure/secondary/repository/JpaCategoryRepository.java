@@ -2,8 +2,13 @@ package fr.codecake.ecom.product.domain.infrastructure.secondary.repository;
 
 
 import fr.codecake.ecom.product.domain.infrastructure.secondary.entity.CategoryEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,4 +17,15 @@ public interface JpaCategoryRepository extends JpaRepository<CategoryEntity, Lon
   Optional<CategoryEntity> findByPublicId(UUID publicId);
 
   int deleteByPublicId(UUID publicId);
+
+  // Listing sans requête de comptage
+  Slice<CategoryEntity> findSliceBy(Pageable pageable);
+
+  // Pagination par curseur sur (name, id) : parcours de l'index idx_product_category_name_id, sans OFFSET ni COUNT
+  @Query("SELECT category FROM CategoryEntity category ORDER BY category.name, category.id")
+  List<CategoryEntity> findFirstByName(Limit limit);
+
+  @Query("SELECT category FROM CategoryEntity category " +
+    "WHERE (category.name, category.id) > (:name, :id) ORDER BY category.name, category.id")
+  List<CategoryEntity> findByNameAfter(String name, Long id, Limit limit);
 }
@@ -2,6 +2,16 @@ package fr.codecake.ecom.product.domain.infrastructure.secondary.repository;
 
 import fr.codecake.ecom.product.domain.infrastructure.secondary.entity.PictureEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.UUID;
 
 public interface JpaProductPictureRepository extends JpaRepository<PictureEntity, Long> {
+
+  // Métadonnées seules, sans charger d'entité (ni image, ni produit) : une requête sur l'index (product_fk, id)
+  @Query("SELECT new fr.codecake.ecom.product.domain.infrastructure.secondary.repository.PictureMetadataProjection(" +
+    "picture.id, picture.mimeType, picture.contentHash, picture.fileSize) " +
+    "FROM PictureEntity picture WHERE picture.product.publicId = :productPublicId ORDER BY picture.id")
+  List<PictureMetadataProjection> findMetadataByProductPublicId(UUID productPublicId);
 }
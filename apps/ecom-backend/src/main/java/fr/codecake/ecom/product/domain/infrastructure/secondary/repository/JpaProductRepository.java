@@ -1,14 +1,76 @@
 package fr.codecake.ecom.product.domain.infrastructure.secondary.repository;
 
 import fr.codecake.ecom.product.domain.infrastructure.secondary.entity.ProductEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface JpaProductRepository extends JpaRepository <ProductEntity, Long> {
 
+  // Suppression en une requête : les images sont supprimées par la base (ON DELETE CASCADE sur product_fk)
+  @Modifying
+  @Query("DELETE FROM ProductEntity product WHERE product.publicId = :publicId")
   int deleteByPublicId(UUID publicId);
 
   Optional<ProductEntity> findByPublicId(UUID publicID);
+
+  boolean existsByPublicId(UUID publicId);
+
+  // Identifiant technique seul : suffit pour rattacher une image au produit (référence, sans charger le produit)
+  @Query("SELECT product.id FROM ProductEntity product WHERE product.publicId = :publicId")
+  Optional<Long> findIdByPublicId(UUID publicId);
+
+  // Catégorie d'un produit, lue avant sa suppression pour décrémenter le compteur de la catégorie
+  @Query("SELECT product.category.id FROM ProductEntity product WHERE product.publicId = :publicId")
+  Optional<Long> findCategoryIdByPublicId(UUID publicId);
+
+  // Catégorie actuelle d'un produit, lue avant sa mise à jour pour ajuster les compteurs s'il change de catégorie
+  @Query("SELECT product.category.id FROM ProductEntity product WHERE product.id = :id")
+  Optional<Long> findCategoryIdById(Long id);
+
+  // Recomptage complet des produits par catégorie (parcours de l'index idx_product_category_fk)
+  @Query("SELECT new fr.codecake.ecom.product.domain.infrastructure.secondary.repository.CategoryProductCount(" +
+    "product.category.id, COUNT(product)) FROM ProductEntity product GROUP BY product.category.id")
+  List<CategoryProductCount> countByCategory();
+
+  // Listing du catalogue : colonnes d'une carte produit et identifiant de la première image,
+  // sans charger les entités, la collection `pictures` ni le contenu des images
+  String SELECT_CARDS = "SELECT new fr.codecake.ecom.product.domain.infrastructure.secondary.repository.ProductCardProjection(" +
+    "product.id, product.publicId, product.name, product.price, product.brand, product.color, product.size, " +
+    "(SELECT MIN(picture.id) FROM PictureEntity picture WHERE picture.product = product)) " +
+    "FROM ProductEntity product ";
+
+  @Query(value = SELECT_CARDS, countQuery = "SELECT COUNT(product) FROM ProductEntity product")
+  Page<ProductCardProjection> findAllCards(Pageable pageable);
+
+  // Même listing sans requête de comptage : une ligne supplémentaire est lue pour savoir s'il y a une page suivante
+  @Query(SELECT_CARDS)
+  Slice<ProductCardProjection> findCardsSlice(Pageable pageable);
+
+  // Cartes d'une page de résultats de recherche (ordre rétabli par l'appelant)
+  @Query(SELECT_CARDS + "WHERE product.publicId IN :publicIds")
+  List<ProductCardProjection> findCardsByPublicIds(Collection<UUID> publicIds);
+
+  // Construction de l'index de recherche : dimensions filtrables de tous les produits, avec ou sans catégorie,
+  // dans l'ordre de tri des résultats (collation de la base)
+  @Query("SELECT new fr.codecake.ecom.product.domain.infrastructure.secondary.repository.ProductSearchRow(" +
+    "product.id, product.publicId, product.name, product.brand, product.color, product.size, product.price, product.featured, " +
+    "category.publicId) FROM ProductEntity product LEFT JOIN product.category category ORDER BY product.name, product.id")
+  List<ProductSearchRow> findAllSearchRows();
+
+  // Pagination par curseur sur (name, id) : parcours de l'index idx_product_name_id, sans OFFSET ni COUNT
+  @Query(SELECT_CARDS + "ORDER BY product.name, product.id")
+  List<ProductCardProjection> findFirstCardsByName(Limit limit);
+
+  @Query(SELECT_CARDS + "WHERE (product.name, product.id) > (:name, :id) ORDER BY product.name, product.id")
+  List<ProductCardProjection> findCardsByNameAfter(String name, Long id, Limit limit);
 }
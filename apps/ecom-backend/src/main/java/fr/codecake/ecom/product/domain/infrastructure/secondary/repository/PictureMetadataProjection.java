@@ -0,0 +1,14 @@
+package fr.codecake.ecom.product.domain.infrastructure.secondary.repository;
+
+import fr.codecake.ecom.product.domain.aggregate.PictureMetadata;
+
+/**
+ * Résultat de la requête des images d'un produit (expression constructeur JPQL) :
+ * uniquement les métadonnées, sans entité gérée ni contenu d'image.
+ */
+public record PictureMetadataProjection(Long id, String mimeType, String contentHash, long fileSize) {
+
+  public PictureMetadata toDomain() {
+    return new PictureMetadata(id, mimeType, contentHash, fileSize);
+  }
+}
@@ -0,0 +1,287 @@
+package fr.codecake.ecom.product.domain.infrastructure.secondary.repository;
+
+import fr.codecake.ecom.product.domain.aggregate.ProductFacets;
+import fr.codecake.ecom.product.domain.aggregate.ProductSearchCriteria;
+import fr.codecake.ecom.product.domain.vo.ProductBrand;
+import fr.codecake.ecom.product.domain.vo.ProductColor;
+import fr.codecake.ecom.product.domain.vo.ProductSize;
+import fr.codecake.ecom.product.domain.vo.PublicId;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Index bitmap des produits pour la recherche à facettes (non synchronisé : voir ProductSearchIndex).
+ * - Chaque produit indexé reçoit un numéro de document ; chaque valeur de facette (marque, couleur, taille,
+ *   catégorie, mis en avant) a un BitSet de ses documents. Un filtre est une union de BitSet par dimension,
+ *   une recherche l'intersection de ces unions.
+ * - Une modification ajoute un nouveau document, une suppression efface le bit du document dans `live` :
+ *   les anciens documents ne sont retirés des BitSet qu'au prochain recalcul complet.
+ * - Les résultats sont triés par rang : à la construction, le rang est la position du produit dans la lecture
+ *   `ORDER BY name, id`, donc dans la collation de la base (même ordre que la pagination des cartes produit).
+ *   Un produit modifié sans changer de nom garde son rang ; un produit ajouté ou renommé entre deux constructions
+ *   est placé à l'aide de la comparaison Java des noms, jusqu'à la construction suivante qui lui donne son rang exact.
+ */
+final class ProductBitmapIndex {
+
+  private static final int BRAND = 0;
+  private static final int COLOR = 1;
+  private static final int SIZE = 2;
+  private static final int CATEGORY = 3;
+  private static final int FEATURED = 4;
+  private static final int PRICE = 5;
+  private static final int DIMENSIONS = 6;
+
+  // Uniquement pour placer un produit ajouté ou renommé entre deux constructions
+  private static final Comparator<ProductSearchRow> BY_NAME = Comparator
+    .comparing(ProductSearchRow::name, Comparator.nullsLast(Comparator.naturalOrder()))
+    .thenComparing(ProductSearchRow::id);
+
+  private static final Comparator<Document> BY_RANK = Comparator
+    .comparingDouble(Document::rank)
+    .thenComparing(document -> document.row().id());
+
+  private final List<Document> documents = new ArrayList<>();
+  private final Map<UUID, Integer> documentsByPublicId = new HashMap<>();
+  private final BitSet live = new BitSet();
+
+  private final Map<String, BitSet> byBrand = new HashMap<>();
+  private final Map<String, BitSet> byColor = new HashMap<>();
+  private final Map<ProductSize, BitSet> bySize = new EnumMap<>(ProductSize.class);
+  private final Map<UUID, BitSet> byCategory = new HashMap<>();
+  private final BitSet featured = new BitSet();
+
+  /**
+   * Produits correspondant à une recherche.
+   * @param publicIds Identifiants des produits de la page demandée, dans l'ordre (nom, id) de la base
+   * @param total Nombre total de produits correspondants
+   */
+  record Hits(List<UUID> publicIds, long total, ProductFacets facets) {
+  }
+
+  private record Document(ProductSearchRow row, double rank) {
+  }
+
+  /**
+   * Indexe un produit lu à la construction : les produits doivent être ajoutés dans l'ordre `name, id` de la base.
+   */
+  void putInDatabaseOrder(ProductSearchRow row) {
+    index(row, documents.isEmpty() ? 0 : documents.getLast().rank() + 1);
+  }
+
+  /**
+   * Indexe le produit, ou remplace sa version précédente.
+   */
+  void put(ProductSearchRow row) {
+    Integer previous = documentsByPublicId.get(row.publicId());
+    if (previous != null && Objects.equals(documents.get(previous).row().name(), row.name())) {
+      index(row, documents.get(previous).rank());
+    } else {
+      remove(row.publicId());
+      index(row, rankOf(row));
+    }
+  }
+
+  private void index(ProductSearchRow row, double rank) {
+    remove(row.publicId());
+    int document = documents.size();
+    documents.add(new Document(row, rank));
+    documentsByPublicId.put(row.publicId(), document);
+    live.set(document);
+    set(byBrand, row.brand(), document);
+    set(byColor, row.color(), document);
+    set(bySize, row.size(), document);
+    set(byCategory, row.categoryPublicId(), document);
+    if (Boolean.TRUE.equals(row.featured())) {
+      featured.set(document);
+    }
+  }
+
+  // Rang entre celui du dernier produit vivant qui le précède (comparaison Java) et le rang suivant
+  private double rankOf(ProductSearchRow row) {
+    double lower = Double.NEGATIVE_INFINITY;
+    double first = Double.POSITIVE_INFINITY;
+    for (int document = live.nextSetBit(0); document >= 0; document = live.nextSetBit(document + 1)) {
+      Document indexed = documents.get(document);
+      first = Math.min(first, indexed.rank());
+      if (BY_NAME.compare(indexed.row(), row) < 0) {
+        lower = Math.max(lower, indexed.rank());
+      }
+    }
+    if (first == Double.POSITIVE_INFINITY) {
+      return 0;
+    }
+    if (lower == Double.NEGATIVE_INFINITY) {
+      return first - 1;
+    }
+    double upper = Double.POSITIVE_INFINITY;
+    for (int document = live.nextSetBit(0); document >= 0; document = live.nextSetBit(document + 1)) {
+      double rank = documents.get(document).rank();
+      if (rank > lower) {
+        upper = Math.min(upper, rank);
+      }
+    }
+    return upper == Double.POSITIVE_INFINITY ? lower + 1 : (lower + upper) / 2;
+  }
+
+  void remove(UUID publicId) {
+    Integer document = documentsByPublicId.remove(publicId);
+    if (document != null) {
+      live.clear(document);
+    }
+  }
+
+  int size() {
+    return documentsByPublicId.size();
+  }
+
+  Hits search(ProductSearchCriteria criteria, Pageable pageable) {
+    BitSet[] filters = new BitSet[DIMENSIONS];
+    filters[BRAND] = union(byBrand, criteria.brands().stream().map(ProductBrand::value).toList());
+    filters[COLOR] = union(byColor, criteria.colors().stream().map(ProductColor::value).toList());
+    filters[SIZE] = union(bySize, criteria.sizes());
+    filters[CATEGORY] = union(byCategory, criteria.categories().stream().map(PublicId::value).toList());
+    filters[FEATURED] = featuredFilter(criteria.featured());
+    filters[PRICE] = criteria.hasPriceRange() ? priceRange(criteria.minPrice(), criteria.maxPrice()) : null;
+
+    BitSet matches = matching(filters, -1);
+    return new Hits(page(matches, pageable), matches.cardinality(), facets(filters));
+  }
+
+  /**
+   * Comptes d'une dimension : intersection de chacune de ses valeurs avec les documents
+   * qui passent tous les autres filtres.
+   */
+  private ProductFacets facets(BitSet[] filters) {
+    BitSet withoutPriceFilter = matching(filters, PRICE);
+    double minPrice = Double.MAX_VALUE;
+    double maxPrice = -Double.MAX_VALUE;
+    boolean anyPrice = false;
+    for (int document = withoutPriceFilter.nextSetBit(0); document >= 0; document = withoutPriceFilter.nextSetBit(document + 1)) {
+      Double price = documents.get(document).row().price();
+      // Un produit sans prix ne compte pas dans la fourchette affichée
+      if (price != null) {
+        minPrice = Math.min(minPrice, price);
+        maxPrice = Math.max(maxPrice, price);
+        anyPrice = true;
+      }
+    }
+
+    return new ProductFacets(
+      byDescendingCount(count(byBrand, matching(filters, BRAND), ProductBrand::new)),
+      byDescendingCount(count(byColor, matching(filters, COLOR), ProductColor::new)),
+      count(bySize, matching(filters, SIZE), Function.identity()),
+      byDescendingCount(count(byCategory, matching(filters, CATEGORY), PublicId::new)),
+      intersectionCount(featured, matching(filters, FEATURED)),
+      anyPrice ? minPrice : null,
+      anyPrice ? maxPrice : null);
+  }
+
+  // Documents vivants qui passent tous les filtres, sauf celui de la dimension `excluded`
+  private BitSet matching(BitSet[] filters, int excluded) {
+    BitSet result = (BitSet) live.clone();
+    for (int dimension = 0; dimension < DIMENSIONS; dimension++) {
+      if (dimension != excluded && filters[dimension] != null) {
+        result.and(filters[dimension]);
+      }
+    }
+    return result;
+  }
+
+  private List<UUID> page(BitSet matches, Pageable pageable) {
+    List<Document> matching = new ArrayList<>(matches.cardinality());
+    for (int document = matches.nextSetBit(0); document >= 0; document = matches.nextSetBit(document + 1)) {
+      matching.add(documents.get(document));
+    }
+    matching.sort(BY_RANK);
+    if (pageable.isUnpaged()) {
+      return matching.stream().map(document -> document.row().publicId()).toList();
+    }
+    int from = (int) Math.min(pageable.getOffset(), matching.size());
+    int to = Math.min(from + pageable.getPageSize(), matching.size());
+    return matching.subList(from, to).stream().map(document -> document.row().publicId()).toList();
+  }
+
+  private BitSet featuredFilter(Boolean wanted) {
+    if (wanted == null) {
+      return null;
+    }
+    if (wanted) {
+      return featured;
+    }
+    BitSet notFeatured = (BitSet) live.clone();
+    notFeatured.andNot(featured);
+    return notFeatured;
+  }
+
+  // Le prix n'a pas de BitSet par valeur : les documents vivants sont parcourus une fois.
+  // Un produit sans prix n'est dans aucune fourchette
+  private BitSet priceRange(Double min, Double max) {
+    BitSet inRange = new BitSet(documents.size());
+    for (int document = live.nextSetBit(0); document >= 0; document = live.nextSetBit(document + 1)) {
+      Double price = documents.get(document).row().price();
+      if (price != null && (min == null || price >= min) && (max == null || price <= max)) {
+        inRange.set(document);
+      }
+    }
+    return inRange;
+  }
+
+  // Null si aucune valeur n'est demandée (la dimension ne filtre pas)
+  private static <K> BitSet union(Map<K, BitSet> postings, Collection<K> values) {
+    if (values.isEmpty()) {
+      return null;
+    }
+    BitSet union = new BitSet();
+    for (K value : values) {
+      BitSet documentsWithValue = postings.get(value);
+      if (documentsWithValue != null) {
+        union.or(documentsWithValue);
+      }
+    }
+    return union;
+  }
+
+  private static <K, V> Map<V, Long> count(Map<K, BitSet> postings, BitSet base, Function<K, V> toDomain) {
+    Map<V, Long> counts = new LinkedHashMap<>();
+    for (Entry<K, BitSet> posting : postings.entrySet()) {
+      long count = intersectionCount(posting.getValue(), base);
+      if (count > 0) {
+        counts.put(toDomain.apply(posting.getKey()), count);
+      }
+    }
+    return counts;
+  }
+
+  private static long intersectionCount(BitSet documentsWithValue, BitSet base) {
+    BitSet intersection = (BitSet) documentsWithValue.clone();
+    intersection.and(base);
+    return intersection.cardinality();
+  }
+
+  private static <V> Map<V, Long> byDescendingCount(Map<V, Long> counts) {
+    Map<V, Long> sorted = new LinkedHashMap<>();
+    counts.entrySet().stream()
+      .sorted(Entry.<V, Long>comparingByValue().reversed())
+      .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+    return sorted;
+  }
+
+  private static <K> void set(Map<K, BitSet> postings, K value, int document) {
+    if (value != null) {
+      postings.computeIfAbsent(value, key -> new BitSet()).set(document);
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package fr.codecake.ecom.product.domain.infrastructure.secondary.repository;
+
+import fr.codecake.ecom.product.domain.aggregate.ProductCard;
+import fr.codecake.ecom.product.domain.vo.ProductBrand;
+import fr.codecake.ecom.product.domain.vo.ProductColor;
+import fr.codecake.ecom.product.domain.vo.ProductName;
+import fr.codecake.ecom.product.domain.vo.ProductPrice;
+import fr.codecake.ecom.product.domain.vo.ProductSize;
+import fr.codecake.ecom.product.domain.vo.PublicId;
+
+import java.util.UUID;
+
+/**
+ * Résultat de la requête de listing du catalogue (expression constructeur JPQL) :
+ * uniquement les colonnes d'une carte produit, sans entité gérée ni contenu d'image.
+ * L'`id` ne sert qu'à construire le curseur de pagination.
+ */
+public record ProductCardProjection(Long id, UUID publicId, String name, Double price, String brand, String color,
+                                    ProductSize size, Long firstPictureId) {
+
+  // Prix, marque et couleur sont nullables en base : null reste null (RestProductCard gère l'absence)
+  public ProductCard toDomain() {
+    return new ProductCard(new PublicId(publicId), new ProductName(name),
+      price == null ? null : new ProductPrice(price),
+      brand == null ? null : new ProductBrand(brand),
+      color == null ? null : new ProductColor(color),
+      size, firstPictureId);
+  }
+}
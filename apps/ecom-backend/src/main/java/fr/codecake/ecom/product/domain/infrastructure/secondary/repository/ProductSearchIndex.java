@@ -0,0 +1,161 @@
+package fr.codecake.ecom.product.domain.infrastructure.secondary.repository;
+
+import fr.codecake.ecom.product.domain.aggregate.ProductSearchCriteria;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Index de recherche à facettes des produits, en mémoire (ProductBitmapIndex) : ni filtre ni `GROUP BY` en base par recherche.
+ * - Construit en une lecture de la table `product` au premier accès, puis mis à jour après le commit
+ *   de chaque ajout ou suppression de produit sur ce nœud.
+ * - Reconstruit périodiquement (`application.product-search.rebuild-interval`) pour prendre en compte
+ *   les modifications faites sur les autres nœuds et retirer les anciens documents.
+ * - Les recherches se font en parallèle (verrou en lecture), les mises à jour une par une (verrou en écriture).
+ *   Les mises à jour reçues pendant une reconstruction sont rejouées sur le nouvel index avant qu'il remplace l'ancien.
+ */
+@Component
+public class ProductSearchIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+  private final JpaProductRepository jpaProductRepository;
+  private final TransactionTemplate readOnlyTransactionTemplate;
+
+  private final ReentrantReadWriteLock indexLock = new ReentrantReadWriteLock();
+  // ReentrantLock plutôt que synchronized : ne bloque pas le thread porteur des threads virtuels
+  private final ReentrantLock rebuildLock = new ReentrantLock();
+
+  // Modifiés avec le verrou en écriture
+  private volatile ProductBitmapIndex index;
+  private List<Consumer<ProductBitmapIndex>> changesDuringRebuild;
+
+  public ProductSearchIndex(JpaProductRepository jpaProductRepository, PlatformTransactionManager transactionManager) {
+    this.jpaProductRepository = jpaProductRepository;
+    this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+  }
+
+  ProductBitmapIndex.Hits search(ProductSearchCriteria criteria, Pageable pageable) {
+    if (index == null) {
+      loadIfAbsent();
+    }
+    indexLock.readLock().lock();
+    try {
+      return index.search(criteria, pageable);
+    } finally {
+      indexLock.readLock().unlock();
+    }
+  }
+
+  void putAfterCommit(ProductSearchRow row) {
+    afterCommit(bitmapIndex -> bitmapIndex.put(row));
+  }
+
+  void removeAfterCommit(UUID publicId) {
+    afterCommit(bitmapIndex -> bitmapIndex.remove(publicId));
+  }
+
+  @Scheduled(fixedDelayString = "${application.product-search.rebuild-interval:15m}")
+  void rebuildPeriodically() {
+    // Rien à reconstruire tant que personne n'a cherché
+    if (index != null) {
+      try {
+        rebuild();
+      } catch (RuntimeException e) {
+        // L'index actuel reste utilisé jusqu'à la prochaine reconstruction
+        log.warn("Unable to rebuild product search index", e);
+      }
+    }
+  }
+
+  void rebuild() {
+    rebuildLock.lock();
+    try {
+      load();
+    } finally {
+      rebuildLock.unlock();
+    }
+  }
+
+  // Appliquée immédiatement s'il n'y a pas de transaction en cours
+  private void afterCommit(Consumer<ProductBitmapIndex> change) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          apply(change);
+        }
+      });
+    } else {
+      apply(change);
+    }
+  }
+
+  private void apply(Consumer<ProductBitmapIndex> change) {
+    indexLock.writeLock().lock();
+    try {
+      // Pas encore construit (et pas en construction) : la construction lira ce produit en base
+      if (index != null) {
+        change.accept(index);
+      }
+      if (changesDuringRebuild != null) {
+        changesDuringRebuild.add(change);
+      }
+    } finally {
+      indexLock.writeLock().unlock();
+    }
+  }
+
+  private void loadIfAbsent() {
+    rebuildLock.lock();
+    try {
+      if (index == null) {
+        load();
+      }
+    } finally {
+      rebuildLock.unlock();
+    }
+  }
+
+  // Appelé avec rebuildLock
+  private void load() {
+    withWriteLock(() -> changesDuringRebuild = new ArrayList<>());
+    ProductBitmapIndex rebuilt = new ProductBitmapIndex();
+    try {
+      readOnlyTransactionTemplate.executeWithoutResult(status -> jpaProductRepository.findAllSearchRows().forEach(rebuilt::putInDatabaseOrder));
+    } catch (RuntimeException e) {
+      withWriteLock(() -> changesDuringRebuild = null);
+      throw e;
+    }
+    withWriteLock(() -> {
+      // Rejouer une modification déjà lue en base est sans effet (remplacement ou suppression d'un même produit)
+      changesDuringRebuild.forEach(change -> change.accept(rebuilt));
+      changesDuringRebuild = null;
+      index = rebuilt;
+    });
+    log.debug("Product search index built with {} products", rebuilt.size());
+  }
+
+  private void withWriteLock(Runnable action) {
+    indexLock.writeLock().lock();
+    try {
+      action.run();
+    } finally {
+      indexLock.writeLock().unlock();
+    }
+  }
+}
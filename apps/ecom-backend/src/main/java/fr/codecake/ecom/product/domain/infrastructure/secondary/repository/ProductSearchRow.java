@@ -0,0 +1,21 @@
+package fr.codecake.ecom.product.domain.infrastructure.secondary.repository;
+
+import fr.codecake.ecom.product.domain.infrastructure.secondary.entity.ProductEntity;
+import fr.codecake.ecom.product.domain.vo.ProductSize;
+
+import java.util.UUID;
+
+/**
+ * Colonnes d'un produit utilisées par l'index de recherche (expression constructeur JPQL) :
+ * dimensions filtrables, et nom + id pour le tri des résultats.
+ * Prix et mise en avant sont nullables en base : types objets, null pour une colonne vide.
+ */
+public record ProductSearchRow(Long id, UUID publicId, String name, String brand, String color, ProductSize size,
+                               Double price, Boolean featured, UUID categoryPublicId) {
+
+  static ProductSearchRow from(ProductEntity product) {
+    return new ProductSearchRow(product.getId(), product.getPublicId(), product.getName(), product.getBrand(),
+      product.getColor(), product.getSize(), product.getPrice(), product.getFeatured(),
+      product.getCategory() == null ? null : product.getCategory().getPublicId());
+  }
+}
@@ -4,33 +4,103 @@ import fr.codecake.ecom.product.domain.aggregate.Category;
 import fr.codecake.ecom.product.domain.infrastructure.secondary.entity.CategoryEntity;
 import fr.codecake.ecom.product.domain.repository.CategoryRepository;
 import fr.codecake.ecom.product.domain.vo.PublicId;
+import fr.codecake.ecom.shared.jpa.ApproximateRowCount;
+import fr.codecake.ecom.shared.pagination.domain.KeysetCursor;
+import fr.codecake.ecom.shared.pagination.domain.KeysetPage;
+import fr.codecake.ecom.shared.pagination.domain.KeysetPageRequest;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public class SpirngDataCategoryRepository implements CategoryRepository {
 
   private final JpaCategoryRepository  jpaCategoryRepository;
 
-  public SpirngDataCategoryRepository(JpaCategoryRepository jpaCategoryRepository) {
+  private final ApproximateRowCount approximateRowCount;
+
+  private final CategoryCatalogCache categoryCatalogCache;
+
+  private final CategoryProductCounts categoryProductCounts;
+
+  public SpirngDataCategoryRepository(JpaCategoryRepository jpaCategoryRepository, ApproximateRowCount approximateRowCount,
+                                      CategoryCatalogCache categoryCatalogCache, CategoryProductCounts categoryProductCounts) {
     this.jpaCategoryRepository = jpaCategoryRepository;
+    this.approximateRowCount = approximateRowCount;
+    this.categoryCatalogCache = categoryCatalogCache;
+    this.categoryProductCounts = categoryProductCounts;
   }
 
+  /**
+   * Servi depuis le catalogue en mémoire pour un tri par nom (ou sans tri) ; les autres tris sont lus en base.
+   */
   @Override
   public Page<Category> findAll(Pageable pageable) {
-    return jpaCategoryRepository.findAll(pageable).map(CategoryEntity::to);
+    return categoryCatalogCache.snapshot().page(pageable)
+      .orElseGet(() -> jpaCategoryRepository.findAll(pageable).map(CategoryEntity::to))
+      .map(this::withProductCount);
   }
 
+  /**
+   * Toutes les catégories triées par nom, depuis le catalogue en mémoire.
+   */
   @Override
+  public List<Category> findAll() {
+    return categoryCatalogCache.snapshot().all().stream().map(this::withProductCount).toList();
+  }
+
+  @Override
+  public Optional<Category> findByPublicId(PublicId publicId) {
+    return categoryCatalogCache.snapshot().get(publicId.value()).map(this::withProductCount);
+  }
+
+  @Override
+  public Slice<Category> findSlice(Pageable pageable) {
+    return jpaCategoryRepository.findSliceBy(pageable).map(CategoryEntity::to).map(this::withProductCount);
+  }
+
+  @Override
+  public long approximateCount() {
+    return approximateRowCount.of("product_category");
+  }
+
+  @Override
+  public KeysetPage<Category> findAll(KeysetPageRequest pageRequest) {
+    Limit limit = Limit.of(pageRequest.size() + 1);
+    List<CategoryEntity> rows = pageRequest.after()
+      .map(after -> jpaCategoryRepository.findByNameAfter(after.sortKey(), after.id(), limit))
+      .orElseGet(() -> jpaCategoryRepository.findFirstByName(limit));
+    return KeysetPage.of(rows, pageRequest.size(), row -> new KeysetCursor(row.getName(), row.getId()))
+      .map(CategoryEntity::to)
+      .map(this::withProductCount);
+  }
+
+  @Override
+  @Transactional
   public int delete(PublicId publicId) {
-    return jpaCategoryRepository.deleteByPublicId(publicId.value());
+    int nbOfRowsDeleted = jpaCategoryRepository.deleteByPublicId(publicId.value());
+    categoryCatalogCache.refreshAfterCommit();
+    return nbOfRowsDeleted;
   }
 
   @Override
+  @Transactional
   public Category save(Category categoryToCreate) {
     CategoryEntity categoryToSave = CategoryEntity.from(categoryToCreate);
     CategoryEntity categorySaved = jpaCategoryRepository.save(categoryToSave);
+    categoryCatalogCache.refreshAfterCommit();
     return CategoryEntity.to(categorySaved);
   }
+
+  // Nombre de produits lu dans les compteurs en mémoire, sans GROUP BY en base
+  private Category withProductCount(Category category) {
+    category.setProductCount(categoryProductCounts.get(category.getDbId()));
+    return category;
+  }
 }
@@ -1,20 +1,41 @@
 package fr.codecake.ecom.product.domain.infrastructure.secondary.repository;
 
 import fr.codecake.ecom.product.domain.aggregate.Picture;
+import fr.codecake.ecom.product.domain.aggregate.PictureMetadata;
 import fr.codecake.ecom.product.domain.aggregate.Product;
+import fr.codecake.ecom.product.domain.aggregate.ProductCard;
+import fr.codecake.ecom.product.domain.aggregate.ProductSearchCriteria;
+import fr.codecake.ecom.product.domain.aggregate.ProductSearchResult;
 import fr.codecake.ecom.product.domain.infrastructure.secondary.entity.CategoryEntity;
 import fr.codecake.ecom.product.domain.infrastructure.secondary.entity.PictureEntity;
 import fr.codecake.ecom.product.domain.infrastructure.secondary.entity.ProductEntity;
+import fr.codecake.ecom.product.domain.repository.PictureStorage;
+import fr.codecake.ecom.product.domain.repository.PictureStorage.StoredPicture;
 import fr.codecake.ecom.product.domain.repository.ProductRepository;
 import fr.codecake.ecom.product.domain.vo.PublicId;
 import jakarta.persistence.EntityNotFoundException;
+import fr.codecake.ecom.shared.jpa.ApproximateRowCount;
+import fr.codecake.ecom.shared.pagination.domain.KeysetCursor;
+import fr.codecake.ecom.shared.pagination.domain.KeysetPage;
+import fr.codecake.ecom.shared.pagination.domain.KeysetPageRequest;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
+@Repository
 public class SpringDataProductRepository implements ProductRepository {
   private final JpaCategoryRepository jpaCategoryRepository;
 
@@ -22,41 +43,176 @@ public class SpringDataProductRepository implements ProductRepository {
 
   private final JpaProductPictureRepository jpaProductPictureRepository;
 
-  public SpringDataProductRepository(JpaCategoryRepository jpaCategoryRepository, JpaProductRepository jpaProductRepository, JpaProductPictureRepository jpaProductPictureRepository) {
+  private final ApproximateRowCount approximateRowCount;
+
+  private final PictureStorage pictureStorage;
+
+  private final CategoryProductCounts categoryProductCounts;
+
+  private final ProductSearchIndex productSearchIndex;
+
+  public SpringDataProductRepository(JpaCategoryRepository jpaCategoryRepository, JpaProductRepository jpaProductRepository, JpaProductPictureRepository jpaProductPictureRepository,
+                                     ApproximateRowCount approximateRowCount, PictureStorage pictureStorage,
+                                     CategoryProductCounts categoryProductCounts, ProductSearchIndex productSearchIndex) {
     this.jpaCategoryRepository = jpaCategoryRepository;
     this.jpaProductRepository = jpaProductRepository;
     this.jpaProductPictureRepository = jpaProductPictureRepository;
+    this.approximateRowCount = approximateRowCount;
+    this.pictureStorage = pictureStorage;
+    this.categoryProductCounts = categoryProductCounts;
+    this.productSearchIndex = productSearchIndex;
   }
-  *@Override
+  /**
+   * Crée ou met à jour le produit, et ajuste les compteurs de catégorie : +1 pour un nouveau produit,
+   * -1 / +1 pour un produit existant qui change de catégorie (catégorie précédente lue avant l'écriture).
+   */
+  @Override
   public Product save(Product productToCreate) {
     ProductEntity newProductEntity = ProductEntity.from(productToCreate);
     Optional<CategoryEntity> categoryEntityOpt = jpaCategoryRepository.findByPublicId(newProductEntity.getCategory().getPublicId());
     CategoryEntity categoryEntity = categoryEntityOpt.orElseThrow(()  -> new EntityNotFoundException(String.format("No category found with Id %s", productToCreate.getCategory().getPublicId())));
     newProductEntity.setCategory(categoryEntity);
+    Optional<Long> previousCategoryId = productToCreate.getDbId() == null ? Optional.empty()
+      : jpaProductRepository.findCategoryIdById(productToCreate.getDbId());
     ProductEntity savedProductEntity = jpaProductRepository.save(newProductEntity);
 
-    saveAllPictures(productToCreate.getPictures(), savedProductEntity);
+    savedProductEntity.setPictures(saveAllPictures(productToCreate.getPictures(), savedProductEntity));
+    if (productToCreate.getDbId() == null) {
+      categoryProductCounts.addAfterCommit(categoryEntity.getId(), 1);
+    } else if (previousCategoryId.isPresent() && !previousCategoryId.get().equals(categoryEntity.getId())) {
+      categoryProductCounts.addAfterCommit(previousCategoryId.get(), -1);
+      categoryProductCounts.addAfterCommit(categoryEntity.getId(), 1);
+    }
+    productSearchIndex.putAfterCommit(ProductSearchRow.from(savedProductEntity));
     return ProductEntity.to(savedProductEntity);
 
   }
 
-  private void saveAllPictures(List<Picture> pictures, ProductEntity newProductEntity){
-    Set<PictureEntity> picturesEntities = PictureEntity.from(pictures);
+  /**
+   * Enregistre le contenu des nouvelles images dans `PictureStorage`, puis leurs métadonnées en base.
+   * Seules l'empreinte, la taille et le type MIME sont écrits dans `product_picture`.
+   */
+  private Set<PictureEntity> saveAllPictures(List<Picture> pictures, ProductEntity newProductEntity){
+    Set<PictureEntity> picturesEntities = new HashSet<>();
 
-    for(PictureEntity picturesEntity : picturesEntities){
-      picturesEntity.setProduct(newProductEntity);
+    for(Picture picture : pictures){
+      PictureEntity pictureEntity = PictureEntity.from(picture);
+      if (picture.file() != null) {
+        StoredPicture storedPicture = pictureStorage.store(picture.file());
+        pictureEntity.setContentHash(storedPicture.contentHash());
+        pictureEntity.setFileSize(storedPicture.size());
+      }
+      pictureEntity.setProduct(newProductEntity);
+      picturesEntities.add(pictureEntity);
     }
 
-    jpaProductPictureRepository.saveAll(picturesEntities);
+    return new HashSet<>(jpaProductPictureRepository.saveAll(picturesEntities));
+  }
+
+  /**
+   * Liste les produits sous forme de cartes (voir JpaProductRepository#findAllCards) :
+   * une requête pour la page et une pour le total, quel que soit le nombre ou la taille des images.
+   */
+  @Override
+  public Page<ProductCard> findAll(Pageable pageable) {
+    return jpaProductRepository.findAllCards(pageable).map(ProductCardProjection::toDomain);
+  }
+
+  /**
+   * Variante sans `count(*)` de {@link #findAll(Pageable)}, pour le défilement infini.
+   */
+  @Override
+  public Slice<ProductCard> findSlice(Pageable pageable) {
+    return jpaProductRepository.findCardsSlice(pageable).map(ProductCardProjection::toDomain);
   }
 
   @Override
-  public Page<Product> findAll(Pageable pageable) {
-    return null;
+  public long approximateCount() {
+    return approximateRowCount.of("product");
   }
 
+  /**
+   * Liste les cartes produit triées par nom, page par page à partir d'un curseur.
+   * Une seule requête par page (la ligne supplémentaire lue indique s'il existe une page suivante).
+   */
   @Override
+  public KeysetPage<ProductCard> findAll(KeysetPageRequest pageRequest) {
+    Limit limit = Limit.of(pageRequest.size() + 1);
+    List<ProductCardProjection> rows = pageRequest.after()
+      .map(after -> jpaProductRepository.findCardsByNameAfter(after.sortKey(), after.id(), limit))
+      .orElseGet(() -> jpaProductRepository.findFirstCardsByName(limit));
+    return KeysetPage.of(rows, pageRequest.size(), row -> new KeysetCursor(row.name(), row.id()))
+      .map(ProductCardProjection::toDomain);
+  }
+
+  /**
+   * Recherche à facettes dans l'index en mémoire (voir ProductSearchIndex) ; seules les cartes de la page
+   * demandée sont lues en base, en une seule requête.
+   */
+  @Override
+  public ProductSearchResult search(ProductSearchCriteria criteria, Pageable pageable) {
+    ProductBitmapIndex.Hits hits = productSearchIndex.search(criteria, pageable);
+    Map<UUID, ProductCard> cardsByPublicId = hits.publicIds().isEmpty() ? Map.of() :
+      jpaProductRepository.findCardsByPublicIds(hits.publicIds()).stream()
+        .collect(Collectors.toMap(ProductCardProjection::publicId, ProductCardProjection::toDomain));
+    // Un produit supprimé sur un autre nœud peut être encore indexé ici : il est ignoré
+    List<ProductCard> cards = hits.publicIds().stream()
+      .map(cardsByPublicId::get)
+      .filter(Objects::nonNull)
+      .toList();
+    return new ProductSearchResult(new PageImpl<>(cards, pageable, hits.total()), hits.facets());
+  }
+
+  /**
+   * Supprime le produit, le retire de l'index de recherche et décrémente le compteur de sa catégorie
+   * (lue avant, par la clé étrangère seule).
+   */
+  @Override
+  @Transactional
   public int delete(PublicId publicId) {
-    return 0;
+    Optional<Long> categoryId = jpaProductRepository.findCategoryIdByPublicId(publicId.value());
+    int nbOfRowsDeleted = jpaProductRepository.deleteByPublicId(publicId.value());
+    if (nbOfRowsDeleted == 1) {
+      categoryId.ifPresent(id -> categoryProductCounts.addAfterCommit(id, -1));
+      productSearchIndex.removeAfterCommit(publicId.value());
+    }
+    return nbOfRowsDeleted;
+  }
+
+  @Override
+  public boolean exists(PublicId publicId) {
+    return jpaProductRepository.existsByPublicId(publicId.value());
+  }
+
+  /**
+   * Rattache au produit une image dont le contenu est déjà dans `PictureStorage`.
+   * Le produit n'est pas chargé : seul son identifiant est lu pour la clé étrangère.
+   */
+  @Override
+  @Transactional
+  public Long addPicture(PublicId productPublicId, StoredPicture storedPicture, String mimeType) {
+    Long productId = jpaProductRepository.findIdByPublicId(productPublicId.value())
+      .orElseThrow(() -> new EntityNotFoundException(String.format("No product found with Id %s", productPublicId.value())));
+    PictureEntity pictureEntity = new PictureEntity(null, storedPicture.contentHash(), storedPicture.size(), mimeType,
+      jpaProductRepository.getReferenceById(productId));
+    return jpaProductPictureRepository.save(pictureEntity).getId();
+  }
+
+  /**
+   * Images d'un produit dans l'ordre d'ajout, sans leur contenu ni aucune entité chargée.
+   */
+  @Override
+  public List<PictureMetadata> findPictures(PublicId productPublicId) {
+    return jpaProductPictureRepository.findMetadataByProductPublicId(productPublicId.value()).stream()
+      .map(PictureMetadataProjection::toDomain)
+      .toList();
+  }
+
+  /**
+   * Métadonnées d'une image (type MIME et empreinte) ; son contenu se lit avec `PictureStorage`.
+   */
+  @Override
+  public Optional<Picture> findPicture(Long pictureId) {
+    return jpaProductPictureRepository.findById(pictureId).map(PictureEntity::to);
   }
 }
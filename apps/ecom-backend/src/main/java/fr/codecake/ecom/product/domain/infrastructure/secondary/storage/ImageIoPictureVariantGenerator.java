@@ -0,0 +1,190 @@
+package fr.codecake.ecom.product.domain.infrastructure.secondary.storage;
+
+import fr.codecake.ecom.product.domain.repository.PictureStorage;
+import fr.codecake.ecom.product.domain.repository.PictureVariantGenerator;
+import fr.codecake.ecom.product.domain.vo.PictureVariant;
+import fr.codecake.ecom.shared.concurrent.KeyedTaskQueue;
+import fr.codecake.ecom.shared.concurrent.KeyedTaskQueue.SubmitResult;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Génère les variantes réduites des images produit avec ImageIO (JDK uniquement).
+ * - Les générations sont exécutées en arrière-plan par un nombre fixe de workers, dans une file bornée
+ *   et dédupliquée par empreinte (KeyedTaskQueue).
+ * - File pleine : la génération se fait dans le thread appelant, ce qui ralentit les envois d'images
+ *   au rythme des workers au lieu de perdre des variantes (backpressure).
+ * - L'original est décodé directement à la résolution de la plus grande variante (sous-échantillonnage
+ *   à la lecture) : une photo de plusieurs dizaines de mégapixels n'est jamais décodée en entier.
+ * - Formats sans lecteur ImageIO (ex : WEBP) : pas de variante, l'original est servi.
+ */
+@Component
+public class ImageIoPictureVariantGenerator implements PictureVariantGenerator {
+
+  private static final Logger log = LoggerFactory.getLogger(ImageIoPictureVariantGenerator.class);
+
+  private static final float JPEG_QUALITY = 0.85f;
+
+  // De la plus grande à la plus petite : chaque variante est réduite à partir de la précédente
+  private static final List<PictureVariant> VARIANTS_BY_SIZE = Arrays.stream(PictureVariant.values())
+    .sorted((first, second) -> Integer.compare(second.maxSize(), first.maxSize()))
+    .toList();
+
+  private final PictureStorage pictureStorage;
+  private final KeyedTaskQueue<String> queue;
+
+  public ImageIoPictureVariantGenerator(PictureStorage pictureStorage,
+                                        @Value("${application.picture-variants.queue-capacity:100}") int queueCapacity,
+                                        @Value("${application.picture-variants.workers:2}") int workers) {
+    this.pictureStorage = pictureStorage;
+    this.queue = new KeyedTaskQueue<>(queueCapacity, workers);
+  }
+
+  @Override
+  public void generate(String contentHash) {
+    if (queue.submit(contentHash, () -> generateNow(contentHash)) == SubmitResult.QUEUE_FULL) {
+      log.debug("Picture variant queue is full, generating variants of {} in the calling thread", contentHash);
+      // Comme pour les workers : un échec de génération ne doit pas faire échouer l'envoi de l'image
+      try {
+        generateNow(contentHash);
+      } catch (RuntimeException e) {
+        log.error("Picture variant generation for {} failed", contentHash, e);
+      }
+    }
+  }
+
+  /**
+   * Génère les variantes manquantes de ce contenu dans le thread courant.
+   */
+  void generateNow(String contentHash) {
+    List<PictureVariant> missingVariants = VARIANTS_BY_SIZE.stream()
+      .filter(variant -> pictureStorage.localVariantFile(contentHash, variant).isEmpty())
+      .toList();
+    if (missingVariants.isEmpty()) {
+      return;
+    }
+
+    Optional<BufferedImage> source = decode(contentHash);
+    if (source.isEmpty()) {
+      log.info("No ImageIO reader for picture {}, variants not generated", contentHash);
+      return;
+    }
+
+    BufferedImage current = source.get();
+    for (PictureVariant variant : VARIANTS_BY_SIZE) {
+      current = resize(current, variant.maxSize());
+      if (missingVariants.contains(variant)) {
+        pictureStorage.storeVariant(contentHash, variant, new ByteArrayInputStream(encodeJpeg(current)));
+      }
+    }
+  }
+
+  private Optional<BufferedImage> decode(String contentHash) {
+    Optional<Path> file = pictureStorage.localFile(contentHash);
+    if (file.isEmpty()) {
+      return Optional.empty();
+    }
+
+    try (ImageInputStream input = ImageIO.createImageInputStream(file.get().toFile())) {
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+      if (!readers.hasNext()) {
+        return Optional.empty();
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(input, true, true);
+        int largestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+        int subsampling = Math.max(1, largestSide / PictureVariant.largest().maxSize());
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        return Optional.of(reader.read(0, param));
+      } finally {
+        reader.dispose();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(String.format("Unable to decode picture %s", contentHash), e);
+    }
+  }
+
+  /**
+   * Réduit l'image pour qu'elle tienne dans un carré de `maxSize` pixels, par divisions successives par deux
+   * (une réduction bilinéaire en une seule étape crénelle les détails). La transparence est remplacée par du blanc.
+   */
+  static BufferedImage resize(BufferedImage image, int maxSize) {
+    double scale = Math.min(1.0, (double) maxSize / Math.max(image.getWidth(), image.getHeight()));
+    int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * scale));
+    int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+    BufferedImage current = image;
+    int width = image.getWidth();
+    int height = image.getHeight();
+    do {
+      width = Math.max(targetWidth, width / 2);
+      height = Math.max(targetHeight, height / 2);
+      current = draw(current, width, height);
+    } while (width != targetWidth || height != targetHeight);
+    return current;
+  }
+
+  private static BufferedImage draw(BufferedImage image, int width, int height) {
+    BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    Graphics2D graphics = resized.createGraphics();
+    try {
+      graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+      graphics.setColor(Color.WHITE);
+      graphics.fillRect(0, 0, width, height);
+      graphics.drawImage(image, 0, 0, width, height, null);
+    } finally {
+      graphics.dispose();
+    }
+    return resized;
+  }
+
+  private static byte[] encodeJpeg(BufferedImage image) {
+    ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(out)) {
+      ImageWriteParam param = writer.getDefaultWriteParam();
+      param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+      param.setCompressionQuality(JPEG_QUALITY);
+      writer.setOutput(output);
+      writer.write(null, new IIOImage(image, null, null), param);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to encode picture variant", e);
+    } finally {
+      writer.dispose();
+    }
+    return out.toByteArray();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    queue.close();
+  }
+}
@@ -0,0 +1,145 @@
+package fr.codecake.ecom.product.domain.infrastructure.secondary.storage;
+
+import fr.codecake.ecom.product.domain.repository.PictureStorage;
+import fr.codecake.ecom.product.domain.vo.PictureVariant;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Stockage des images produit sur le système de fichiers local, sous `application.picture-storage.root`.
+ * - Chaque contenu est rangé sous son empreinte SHA-256 : `<root>/ab/cd/abcd…` (deux niveaux de répertoires
+ *   pour ne pas accumuler des milliers de fichiers dans un seul).
+ * - Le contenu est d'abord copié dans un fichier temporaire en calculant l'empreinte au passage,
+ *   puis renommé atomiquement : un lecteur ne voit jamais un fichier partiellement écrit.
+ * - Un contenu déjà présent n'est pas réécrit (déduplication).
+ * - Les variantes réduites (PictureVariant) sont rangées sous `<root>/variants`, avec la même empreinte que l'original.
+ * Les fichiers ne sont jamais supprimés ici : un même contenu peut être partagé par plusieurs images.
+ */
+@Component
+public class LocalPictureStorage implements PictureStorage {
+
+  private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+
+  private final Path root;
+
+  public LocalPictureStorage(@Value("${application.picture-storage.root:./data/pictures}") Path root) {
+    this.root = root.toAbsolutePath().normalize();
+  }
+
+  @Override
+  public StoredPicture store(InputStream content) {
+    try {
+      Path temporary = createTemporaryFile();
+      try {
+        MessageDigest digest = sha256();
+        long size;
+        try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temporary), digest)) {
+          size = content.transferTo(out);
+        }
+        String contentHash = HexFormat.of().formatHex(digest.digest());
+        Path target = pathOf(contentHash);
+        if (Files.notExists(target)) {
+          Files.createDirectories(target.getParent());
+          moveAtomically(temporary, target);
+        }
+        return new StoredPicture(contentHash, size);
+      } finally {
+        Files.deleteIfExists(temporary);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to store picture", e);
+    }
+  }
+
+  @Override
+  public InputStream open(String contentHash) {
+    try {
+      return Files.newInputStream(pathOf(contentHash));
+    } catch (IOException e) {
+      throw new UncheckedIOException(String.format("Unable to read picture %s", contentHash), e);
+    }
+  }
+
+  @Override
+  public Optional<Path> localFile(String contentHash) {
+    Path file = pathOf(contentHash);
+    return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+  }
+
+  @Override
+  public void storeVariant(String contentHash, PictureVariant variant, InputStream content) {
+    Path target = variantPathOf(contentHash, variant);
+    try {
+      Path temporary = createTemporaryFile();
+      try {
+        try (OutputStream out = Files.newOutputStream(temporary)) {
+          content.transferTo(out);
+        }
+        Files.createDirectories(target.getParent());
+        moveAtomically(temporary, target);
+      } finally {
+        Files.deleteIfExists(temporary);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(String.format("Unable to store %s variant of picture %s", variant, contentHash), e);
+    }
+  }
+
+  @Override
+  public Optional<Path> localVariantFile(String contentHash, PictureVariant variant) {
+    Path file = variantPathOf(contentHash, variant);
+    return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+  }
+
+  private Path createTemporaryFile() throws IOException {
+    Path incoming = Files.createDirectories(root.resolve("incoming"));
+    return Files.createTempFile(incoming, "picture-", ".tmp");
+  }
+
+  // Variantes : <root>/variants/<variante>/ab/cd/abcd….jpg
+  private Path variantPathOf(String contentHash, PictureVariant variant) {
+    Path original = root.relativize(pathOf(contentHash));
+    return root.resolve("variants").resolve(variant.name().toLowerCase(Locale.ROOT))
+      .resolve(original.getParent()).resolve(contentHash + ".jpg");
+  }
+
+  Path pathOf(String contentHash) {
+    // L'empreinte sert de nom de fichier : tout autre format est refusé (pas de "../")
+    if (contentHash == null || !CONTENT_HASH.matcher(contentHash).matches()) {
+      throw new IllegalArgumentException(String.format("Invalid picture hash %s", contentHash));
+    }
+    return root.resolve(contentHash.substring(0, 2)).resolve(contentHash.substring(2, 4)).resolve(contentHash);
+  }
+
+  private static void moveAtomically(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+    } catch (FileAlreadyExistsException e) {
+      // Même contenu enregistré au même moment par une autre requête : rien à faire
+    }
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package fr.codecake.ecom.product.domain.infrastructure.secondary.storage;
+
+import fr.codecake.ecom.product.domain.repository.PictureStorage.StoredPicture;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Migration Liquibase : copie le contenu des images encore stockées dans `product_picture.file`
+ * vers le stockage de fichiers (voir LocalPictureStorage) et renseigne `content_hash` et `file_size`.
+ * - Les lignes sont parcourues par lots, dans l'ordre des identifiants, et lues une à une (fetch size 1, curseur
+ *   hors auto-commit) : une seule image à la fois transite par la JVM.
+ * - Sur PostgreSQL, `file` (`${blobType}`) est un OID : la ligne ne contient que la référence du large object,
+ *   dont le contenu est lu en flux par l'API large object (`getBlob`). Une colonne `bytea` est lue avec `getBinaryStream`.
+ * - Les large objects sont supprimés (`lo_unlink`) par le changeSet suivant, avant la suppression de la colonne.
+ */
+public class PictureFileMigration implements CustomTaskChange {
+
+  private static final int BATCH_SIZE = 100;
+
+  // Paramètre du changeSet (spring.liquibase.parameters.pictureStorageRoot)
+  private String storageRoot;
+  private int migratedCount;
+
+  public void setStorageRoot(String storageRoot) {
+    this.storageRoot = storageRoot;
+  }
+
+  @Override
+  public void execute(Database database) throws CustomChangeException {
+    LocalPictureStorage storage = new LocalPictureStorage(Path.of(storageRoot));
+    String table = database.escapeTableName(null, database.getDefaultSchemaName(), "product_picture");
+    Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+
+    try {
+      boolean autoCommit = connection.getAutoCommit();
+      if (!autoCommit) {
+        // Cas habituel : Liquibase exécute le changeSet dans sa transaction et la valide ensuite
+        migrate(connection, table, storage);
+        return;
+      }
+      // L'API large object et le curseur (fetch size) ne fonctionnent qu'à l'intérieur d'une transaction
+      connection.setAutoCommit(false);
+      try {
+        migrate(connection, table, storage);
+        connection.commit();
+      } catch (SQLException | IOException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(true);
+      }
+    } catch (SQLException | IOException e) {
+      throw new CustomChangeException("Unable to move product pictures to " + storageRoot, e);
+    }
+  }
+
+  private void migrate(Connection connection, String table, LocalPictureStorage storage) throws SQLException, IOException {
+    try (PreparedStatement select = connection.prepareStatement(
+           "SELECT id, file FROM " + table + " WHERE content_hash IS NULL AND id > ? ORDER BY id LIMIT " + BATCH_SIZE);
+         PreparedStatement update = connection.prepareStatement(
+           "UPDATE " + table + " SET content_hash = ?, file_size = ? WHERE id = ?")) {
+      select.setFetchSize(1);
+      long lastId = 0;
+      int batchCount;
+      do {
+        batchCount = 0;
+        select.setLong(1, lastId);
+        try (ResultSet rows = select.executeQuery()) {
+          while (rows.next()) {
+            lastId = rows.getLong("id");
+            StoredPicture stored;
+            try (InputStream content = openContent(rows)) {
+              stored = storage.store(content);
+            }
+            update.setString(1, stored.contentHash());
+            update.setLong(2, stored.size());
+            update.setLong(3, lastId);
+            update.addBatch();
+            batchCount++;
+          }
+        }
+        update.executeBatch();
+        migratedCount += batchCount;
+      } while (batchCount == BATCH_SIZE);
+    }
+  }
+
+  private static InputStream openContent(ResultSet rows) throws SQLException {
+    int columnType = rows.getMetaData().getColumnType(rows.findColumn("file"));
+    if (columnType == Types.BINARY || columnType == Types.VARBINARY || columnType == Types.LONGVARBINARY) {
+      return rows.getBinaryStream("file");
+    }
+    // OID (PostgreSQL) ou BLOB : `getBinaryStream` retournerait la référence, pas le contenu
+    return rows.getBlob("file").getBinaryStream();
+  }
+
+  @Override
+  public String getConfirmationMessage() {
+    return String.format("%d product pictures moved to %s", migratedCount, storageRoot);
+  }
+
+  @Override
+  public void setUp() {
+  }
+
+  @Override
+  public void setFileOpener(ResourceAccessor resourceAccessor) {
+  }
+
+  @Override
+  public ValidationErrors validate(Database database) {
+    ValidationErrors errors = new ValidationErrors();
+    errors.checkRequiredField("storageRoot", storageRoot);
+    return errors;
+  }
+}
@@ -3,12 +3,29 @@ package fr.codecake.ecom.product.domain.repository;
 import fr.codecake.ecom.product.domain.aggregate.Category;
 import fr.codecake.ecom.product.domain.infrastructure.secondary.entity.CategoryEntity;
 import fr.codecake.ecom.product.domain.vo.PublicId;
+import fr.codecake.ecom.shared.pagination.domain.KeysetPage;
+import fr.codecake.ecom.shared.pagination.domain.KeysetPageRequest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface CategoryRepository {
 
   Page<Category> findAll(Pageable pageable);
+
+  List<Category> findAll();
+
+  Optional<Category> findByPublicId(PublicId publicId);
+
+  Slice<Category> findSlice(Pageable pageable);
+
+  long approximateCount();
+
+  KeysetPage<Category> findAll(KeysetPageRequest pageRequest);
+
   int delete(PublicId publicId);
 
   Category save(Category categoryToCreate);
@@ -0,0 +1,51 @@
+package fr.codecake.ecom.product.domain.repository;
+
+import fr.codecake.ecom.product.domain.vo.PictureVariant;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Stockage du contenu des images produit, en dehors de la base de données.
+ * Les contenus sont adressés par leur empreinte SHA-256 : deux images identiques ne sont stockées qu'une fois.
+ */
+public interface PictureStorage {
+
+  /**
+   * Enregistre le contenu lu dans `content` (sans le charger entièrement en mémoire) et retourne son empreinte.
+   */
+  StoredPicture store(InputStream content);
+
+  default StoredPicture store(byte[] content) {
+    return store(new ByteArrayInputStream(content));
+  }
+
+  /**
+   * Ouvre le contenu enregistré sous cette empreinte. Le flux doit être fermé par l'appelant.
+   */
+  InputStream open(String contentHash);
+
+  /**
+   * Fichier local du contenu, quand le stockage est sur disque : il peut alors être envoyé sans copie
+   * (sendfile / `FileChannel.transferTo`). Vide si le contenu est absent ou stocké ailleurs.
+   */
+  Optional<Path> localFile(String contentHash);
+
+  /**
+   * Enregistre une variante du contenu `contentHash`, à côté de l'original.
+   */
+  void storeVariant(String contentHash, PictureVariant variant, InputStream content);
+
+  /**
+   * Fichier local d'une variante, vide si elle n'a pas (encore) été générée.
+   */
+  Optional<Path> localVariantFile(String contentHash, PictureVariant variant);
+
+  /**
+   * Empreinte SHA-256 (hexadécimale) et taille en octets d'un contenu enregistré.
+   */
+  record StoredPicture(String contentHash, long size) {
+  }
+}
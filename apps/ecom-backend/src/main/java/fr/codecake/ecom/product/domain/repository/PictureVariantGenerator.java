@@ -0,0 +1,13 @@
+package fr.codecake.ecom.product.domain.repository;
+
+/**
+ * Génération des variantes (PictureVariant) d'une image déjà enregistrée dans `PictureStorage`.
+ */
+public interface PictureVariantGenerator {
+
+  /**
+   * Planifie la génération des variantes manquantes pour ce contenu.
+   * Peut s'exécuter dans le thread appelant si la file de traitement est pleine.
+   */
+  void generate(String contentHash);
+}
@@ -1,15 +1,43 @@
 package fr.codecake.ecom.product.domain.repository;
 
+import fr.codecake.ecom.product.domain.aggregate.Picture;
+import fr.codecake.ecom.product.domain.aggregate.PictureMetadata;
 import fr.codecake.ecom.product.domain.aggregate.Product;
+import fr.codecake.ecom.product.domain.aggregate.ProductCard;
+import fr.codecake.ecom.product.domain.aggregate.ProductSearchCriteria;
+import fr.codecake.ecom.product.domain.aggregate.ProductSearchResult;
+import fr.codecake.ecom.product.domain.repository.PictureStorage.StoredPicture;
 import fr.codecake.ecom.product.domain.vo.PublicId;
+import fr.codecake.ecom.shared.pagination.domain.KeysetPage;
+import fr.codecake.ecom.shared.pagination.domain.KeysetPageRequest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface ProductRepository {
 
   Product save(Product productToCreate);
 
-  Page<Product> findAll(Pageable pageable);
+  Page<ProductCard> findAll(Pageable pageable);
+
+  Slice<ProductCard> findSlice(Pageable pageable);
+
+  long approximateCount();
+
+  KeysetPage<ProductCard> findAll(KeysetPageRequest pageRequest);
+
+  ProductSearchResult search(ProductSearchCriteria criteria, Pageable pageable);
 
   int delete(PublicId publicId);
+
+  boolean exists(PublicId publicId);
+
+  Long addPicture(PublicId productPublicId, StoredPicture storedPicture, String mimeType);
+
+  Optional<Picture> findPicture(Long pictureId);
+
+  List<PictureMetadata> findPictures(PublicId productPublicId);
 }
@@ -3,9 +3,15 @@ package fr.codecake.ecom.product.domain.service;
 import fr.codecake.ecom.product.domain.aggregate.Category;
 import fr.codecake.ecom.product.domain.repository.CategoryRepository;
 import fr.codecake.ecom.product.domain.vo.PublicId;
+import fr.codecake.ecom.shared.pagination.domain.KeysetPage;
+import fr.codecake.ecom.shared.pagination.domain.KeysetPageRequest;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.Optional;
 
 public class CategoryCRUD {
 
@@ -24,6 +30,29 @@ public class CategoryCRUD {
     return categoryRepository.findAll(pageable);
   }
 
+  // Toutes les catégories triées par nom (menus), sans requête en base
+  public List<Category> findAll(){
+    return categoryRepository.findAll();
+  }
+
+  public Optional<Category> findByPublicId(PublicId publicId){
+    return categoryRepository.findByPublicId(publicId);
+  }
+
+  // Sans total : pour le défilement infini
+  public Slice<Category> findSlice(Pageable pageable){
+    return categoryRepository.findSlice(pageable);
+  }
+
+  // Total approximatif mis en cache, pour les écrans qui affichent un nombre de catégories
+  public long approximateCount(){
+    return categoryRepository.approximateCount();
+  }
+
+  public KeysetPage<Category> findAll(KeysetPageRequest pageRequest){
+    return categoryRepository.findAll(pageRequest);
+  }
+
   public PublicId delete(PublicId categoryId){
     int nbOfRowsDeleted= categoryRepository.delete(categoryId);
     if(nbOfRowsDeleted != 1){
@@ -0,0 +1,121 @@
+package fr.codecake.ecom.product.domain.service;
+
+import fr.codecake.ecom.product.domain.repository.PictureStorage;
+import fr.codecake.ecom.product.domain.repository.PictureStorage.StoredPicture;
+import fr.codecake.ecom.product.domain.repository.PictureVariantGenerator;
+import fr.codecake.ecom.product.domain.repository.ProductRepository;
+import fr.codecake.ecom.product.domain.vo.PictureFormat;
+import fr.codecake.ecom.product.domain.vo.PublicId;
+import fr.codecake.ecom.shared.error.domain.PictureTooLargeException;
+import fr.codecake.ecom.shared.error.domain.UnsupportedPictureFormatException;
+import jakarta.persistence.EntityNotFoundException;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Ajout d'une image à un produit à partir d'un flux, sans jamais charger le fichier entier en mémoire.
+ * - Le produit doit exister avant que le contenu ne soit lu : rien n'est copié pour un produit inconnu.
+ * - Le format est reconnu à partir des premiers octets (voir PictureFormat), pas du type annoncé.
+ * - Le contenu est copié dans `PictureStorage`, qui calcule l'empreinte et la taille au passage.
+ * - La copie est interrompue dès que `maxSize` octets sont dépassés.
+ * - Seules les métadonnées sont ensuite écrites en base.
+ * - Les variantes réduites sont ensuite générées en arrière-plan (PictureVariantGenerator).
+ */
+public class PictureUploader {
+
+  private static final String FIELD = "picture";
+
+  private final ProductRepository productRepository;
+  private final PictureStorage pictureStorage;
+  private final PictureVariantGenerator pictureVariantGenerator;
+  private final long maxSize;
+
+  public PictureUploader(ProductRepository productRepository, PictureStorage pictureStorage,
+                         PictureVariantGenerator pictureVariantGenerator, long maxSize) {
+    this.productRepository = productRepository;
+    this.pictureStorage = pictureStorage;
+    this.pictureVariantGenerator = pictureVariantGenerator;
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Rejette un contenu dont la taille annoncée dépasse déjà la limite, avant toute copie.
+   */
+  public void checkSize(long announcedSize) {
+    if (announcedSize > maxSize) {
+      throw new PictureTooLargeException(FIELD, maxSize);
+    }
+  }
+
+  /**
+   * Enregistre l'image lue dans `content` et l'ajoute au produit.
+   * @return L'identifiant de l'image créée
+   */
+  public Long upload(PublicId productPublicId, InputStream content) {
+    if (!productRepository.exists(productPublicId)) {
+      throw new EntityNotFoundException(String.format("No product found with Id %s", productPublicId.value()));
+    }
+    BufferedInputStream bufferedContent = new BufferedInputStream(content);
+    PictureFormat format = PictureFormat.detect(readHeader(bufferedContent))
+      .orElseThrow(() -> new UnsupportedPictureFormatException(FIELD, "The picture is not a PNG, JPEG, GIF or WEBP image"));
+
+    StoredPicture storedPicture = pictureStorage.store(new SizeLimitedInputStream(bufferedContent, maxSize));
+    Long pictureId = productRepository.addPicture(productPublicId, storedPicture, format.mimeType());
+    pictureVariantGenerator.generate(storedPicture.contentHash());
+    return pictureId;
+  }
+
+  private static byte[] readHeader(BufferedInputStream content) {
+    try {
+      content.mark(PictureFormat.HEADER_LENGTH);
+      byte[] header = content.readNBytes(PictureFormat.HEADER_LENGTH);
+      content.reset();
+      return header;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to read picture", e);
+    }
+  }
+
+  /**
+   * Flux qui échoue dès que plus de `maxSize` octets ont été lus.
+   */
+  private static final class SizeLimitedInputStream extends FilterInputStream {
+
+    private final long maxSize;
+    private long readCount;
+
+    private SizeLimitedInputStream(InputStream in, long maxSize) {
+      super(in);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int value = super.read();
+      if (value >= 0) {
+        count(1);
+      }
+      return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int read = super.read(buffer, offset, length);
+      if (read > 0) {
+        count(read);
+      }
+      return read;
+    }
+
+    private void count(int read) {
+      readCount += read;
+      if (readCount > maxSize) {
+        throw new PictureTooLargeException(FIELD, maxSize);
+      }
+    }
+  }
+}
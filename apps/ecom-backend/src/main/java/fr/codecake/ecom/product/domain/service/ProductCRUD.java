@@ -1,11 +1,22 @@
 package fr.codecake.ecom.product.domain.service;
 
+import fr.codecake.ecom.product.domain.aggregate.Picture;
+import fr.codecake.ecom.product.domain.aggregate.PictureMetadata;
 import fr.codecake.ecom.product.domain.aggregate.Product;
+import fr.codecake.ecom.product.domain.aggregate.ProductCard;
+import fr.codecake.ecom.product.domain.aggregate.ProductSearchCriteria;
+import fr.codecake.ecom.product.domain.aggregate.ProductSearchResult;
 import fr.codecake.ecom.product.domain.repository.ProductRepository;
 import fr.codecake.ecom.product.domain.vo.PublicId;
+import fr.codecake.ecom.shared.pagination.domain.KeysetPage;
+import fr.codecake.ecom.shared.pagination.domain.KeysetPageRequest;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.Optional;
 
 public class ProductCRUD {
 
@@ -21,10 +32,37 @@ public class ProductCRUD {
     return productRepository.save(newProduct);
   }
 
-  public Page<Product> findAll(Pageable pageable){
+  public Page<ProductCard> findAll(Pageable pageable){
     return productRepository.findAll(pageable);
   }
 
+  // Sans total : pour le défilement infini
+  public Slice<ProductCard> findSlice(Pageable pageable){
+    return productRepository.findSlice(pageable);
+  }
+
+  // Total approximatif mis en cache, pour les écrans qui affichent un nombre de produits
+  public long approximateCount(){
+    return productRepository.approximateCount();
+  }
+
+  public KeysetPage<ProductCard> findAll(KeysetPageRequest pageRequest){
+    return productRepository.findAll(pageRequest);
+  }
+
+  // Filtres par marque, couleur, taille, prix, mise en avant et catégorie, avec les comptes par facette
+  public ProductSearchResult search(ProductSearchCriteria criteria, Pageable pageable){
+    return productRepository.search(criteria, pageable);
+  }
+
+  public Optional<Picture> findPicture(Long pictureId){
+    return productRepository.findPicture(pictureId);
+  }
+
+  public List<PictureMetadata> findPictures(PublicId productPublicId){
+    return productRepository.findPictures(productPublicId);
+  }
+
   public PublicId remove(PublicId id){
     int nbOfRowsDeleted = productRepository.delete(id);
     if(nbOfRowsDeleted !=1){
@@ -0,0 +1,61 @@
+package fr.codecake.ecom.product.domain.vo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Formats d'image acceptés, reconnus à leurs premiers octets ("magic bytes") et non au type annoncé par le client.
+ */
+public enum PictureFormat {
+
+  PNG("image/png"),
+  JPEG("image/jpeg"),
+  GIF("image/gif"),
+  WEBP("image/webp");
+
+  // Nombre d'octets à lire en tête du contenu pour reconnaître un format
+  public static final int HEADER_LENGTH = 12;
+
+  private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+  private static final byte[] JPEG_SIGNATURE = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+  private static final byte[] GIF87_SIGNATURE = "GIF87a".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] GIF89_SIGNATURE = "GIF89a".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] RIFF_SIGNATURE = "RIFF".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] WEBP_SIGNATURE = "WEBP".getBytes(StandardCharsets.US_ASCII);
+
+  private final String mimeType;
+
+  PictureFormat(String mimeType) {
+    this.mimeType = mimeType;
+  }
+
+  public String mimeType() {
+    return mimeType;
+  }
+
+  /**
+   * Reconnaît le format à partir des premiers octets du contenu (au plus `HEADER_LENGTH`).
+   */
+  public static Optional<PictureFormat> detect(byte[] header) {
+    if (startsWith(header, 0, PNG_SIGNATURE)) {
+      return Optional.of(PNG);
+    }
+    if (startsWith(header, 0, JPEG_SIGNATURE)) {
+      return Optional.of(JPEG);
+    }
+    if (startsWith(header, 0, GIF87_SIGNATURE) || startsWith(header, 0, GIF89_SIGNATURE)) {
+      return Optional.of(GIF);
+    }
+    // RIFF <taille sur 4 octets> WEBP
+    if (startsWith(header, 0, RIFF_SIGNATURE) && startsWith(header, 8, WEBP_SIGNATURE)) {
+      return Optional.of(WEBP);
+    }
+    return Optional.empty();
+  }
+
+  private static boolean startsWith(byte[] header, int offset, byte[] signature) {
+    return header.length >= offset + signature.length
+      && Arrays.equals(header, offset, offset + signature.length, signature, 0, signature.length);
+  }
+}
@@ -0,0 +1,32 @@
+package fr.codecake.ecom.product.domain.vo;
+
+/**
+ * Versions réduites d'une image produit, générées après l'ajout de l'image.
+ * Chaque variante tient dans un carré de `maxSize` pixels (proportions conservées, jamais agrandie)
+ * et est réencodée en JPEG.
+ */
+public enum PictureVariant {
+
+  THUMBNAIL(160),
+  CARD(480),
+  DETAIL(1200);
+
+  public static final String MIME_TYPE = "image/jpeg";
+
+  private final int maxSize;
+
+  PictureVariant(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  public int maxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Variante la plus grande : l'image d'origine est décodée directement à cette résolution.
+   */
+  public static PictureVariant largest() {
+    return DETAIL;
+  }
+}
@@ -1,7 +1,9 @@
 package fr.codecake.ecom.shared.authentification.infrastructure.primary;
 
+import fr.codecake.ecom.shared.authentification.domain.Role;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -21,6 +23,8 @@ public class SecurityConfiguration {
     public SecurityFilterChain configure (HttpSecurity http) throws Exception {
         http
             .authorizeHttpRequests(authorize -> authorize
+                .requestMatchers(HttpMethod.GET, "/api/pictures/**").permitAll() // Images produit publiques (balises <img>, sans jeton)
+                .requestMatchers(HttpMethod.POST, "/api/products/**").hasAuthority(Role.ADMIN.key()) // Modification du catalogue (images...) réservée aux administrateurs
                 .requestMatchers("/api/**").authenticated() // Toutes les requêtes vers /api/** doivent être authentifiées
                 .anyRequest().permitAll() // Toutes les autres requêtes sont autorisées sans authentification
             )
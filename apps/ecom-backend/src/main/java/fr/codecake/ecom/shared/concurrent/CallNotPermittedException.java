@@ -0,0 +1,11 @@
+package fr.codecake.ecom.shared.concurrent;
+
+/**
+ * Levée lorsqu'un appel est refusé par un {@link CircuitBreaker} (circuit ouvert ou bulkhead saturé).
+ */
+public class CallNotPermittedException extends RuntimeException {
+
+  public CallNotPermittedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,176 @@
+package fr.codecake.ecom.shared.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Disjoncteur (circuit breaker) combiné à un bulkhead de concurrence, pour protéger les appels vers un service externe.
+ * - CLOSED : les appels passent ; après `failureThreshold` échecs consécutifs (exceptions ou appels trop lents), le circuit s'ouvre.
+ * - OPEN : les appels sont refusés immédiatement pendant `openDuration`.
+ * - HALF_OPEN : un seul appel d'essai est autorisé ; son succès referme le circuit, son échec le rouvre.
+ * Le bulkhead limite le nombre d'appels simultanés ; au-delà, l'appel attend au plus `maxWait` puis est refusé.
+ * Les exceptions acceptées par `ignoredException` (ex : erreurs 4xx) ne sont pas comptées comme des échecs.
+ */
+public final class CircuitBreaker {
+
+  public enum State { CLOSED, OPEN, HALF_OPEN }
+
+  private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+  private final String name;
+  private final int failureThreshold;
+  private final Duration openDuration;
+  private final Duration slowCallThreshold;
+  private final Semaphore bulkhead;
+  private final Duration maxWait;
+  private final Predicate<Throwable> ignoredException;
+  private final Clock clock;
+
+  // ReentrantLock plutôt que synchronized : ne bloque pas le thread porteur des threads virtuels
+  private final ReentrantLock lock = new ReentrantLock();
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private Instant openedAt;
+  private boolean trialCallInFlight;
+
+  public CircuitBreaker(String name, int failureThreshold, Duration openDuration, Duration slowCallThreshold,
+                        int maxConcurrentCalls, Duration maxWait, Predicate<Throwable> ignoredException) {
+    this(name, failureThreshold, openDuration, slowCallThreshold, maxConcurrentCalls, maxWait, ignoredException,
+      Clock.systemUTC());
+  }
+
+  CircuitBreaker(String name, int failureThreshold, Duration openDuration, Duration slowCallThreshold,
+                 int maxConcurrentCalls, Duration maxWait, Predicate<Throwable> ignoredException, Clock clock) {
+    this.name = name;
+    this.failureThreshold = failureThreshold;
+    this.openDuration = openDuration;
+    this.slowCallThreshold = slowCallThreshold;
+    this.bulkhead = new Semaphore(maxConcurrentCalls);
+    this.maxWait = maxWait;
+    this.ignoredException = ignoredException;
+    this.clock = clock;
+  }
+
+  /**
+   * Exécute l'opération si le circuit et le bulkhead le permettent.
+   *
+   * @throws CallNotPermittedException si le circuit est ouvert ou si le bulkhead est saturé
+   */
+  public <T> T call(Supplier<T> operation) {
+    acquirePermission();
+    try {
+      acquireBulkhead();
+    } catch (CallNotPermittedException e) {
+      releaseTrialCall();
+      throw e;
+    }
+
+    Instant start = clock.instant();
+    try {
+      T result = operation.get();
+      if (Duration.between(start, clock.instant()).compareTo(slowCallThreshold) > 0) {
+        onFailure();
+      } else {
+        onSuccess();
+      }
+      return result;
+    } catch (Throwable e) {
+      // Throwable : une Error (ou une exception vérifiée levée en douce) pendant l'appel d'essai
+      // doit aussi libérer le circuit, sinon il resterait HALF_OPEN avec un essai « en cours » pour toujours
+      if (ignoredException.test(e)) {
+        onSuccess();
+      } else {
+        onFailure();
+      }
+      throw e;
+    } finally {
+      bulkhead.release();
+    }
+  }
+
+  public State getState() {
+    lock.lock();
+    try {
+      return state;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void acquirePermission() {
+    lock.lock();
+    try {
+      if (state == State.OPEN && !clock.instant().isBefore(openedAt.plus(openDuration))) {
+        state = State.HALF_OPEN;
+      }
+      if (state == State.OPEN || (state == State.HALF_OPEN && trialCallInFlight)) {
+        throw new CallNotPermittedException(String.format("Circuit breaker %s is open", name));
+      }
+      if (state == State.HALF_OPEN) {
+        trialCallInFlight = true;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void acquireBulkhead() {
+    try {
+      if (!bulkhead.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+        throw new CallNotPermittedException(String.format("Bulkhead %s is full", name));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CallNotPermittedException(String.format("Interrupted while waiting for bulkhead %s", name));
+    }
+  }
+
+  private void releaseTrialCall() {
+    lock.lock();
+    try {
+      trialCallInFlight = false;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void onSuccess() {
+    lock.lock();
+    try {
+      if (state != State.CLOSED) {
+        log.info("Circuit breaker {} closed", name);
+      }
+      state = State.CLOSED;
+      consecutiveFailures = 0;
+      trialCallInFlight = false;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void onFailure() {
+    lock.lock();
+    try {
+      consecutiveFailures++;
+      trialCallInFlight = false;
+      if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+        if (state != State.OPEN) {
+          log.warn("Circuit breaker {} opened after {} consecutive failures", name, consecutiveFailures);
+        }
+        state = State.OPEN;
+        openedAt = clock.instant();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package fr.codecake.ecom.shared.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * File de tâches d'arrière-plan bornée et dédupliquée par clé.
+ * - Une clé déjà en attente n'est pas ajoutée une seconde fois.
+ * - Si la file est pleine, la tâche est rejetée (l'appelant n'est jamais bloqué) : c'est à l'appelant
+ *   de décider s'il l'exécute lui-même ou l'abandonne, et de le journaliser.
+ * - Les tâches sont exécutées par un nombre fixe de workers sur threads virtuels.
+ *
+ * @param <K> Type de la clé de déduplication
+ */
+public final class KeyedTaskQueue<K> implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(KeyedTaskQueue.class);
+
+  private final BlockingQueue<KeyedTask<K>> queue;
+  private final Set<K> pendingKeys = ConcurrentHashMap.newKeySet();
+  private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+  // Arrêt des workers même si une tâche a avalé l'interruption
+  private volatile boolean closed;
+
+  public KeyedTaskQueue(int capacity, int workerCount) {
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    for (int i = 0; i < workerCount; i++) {
+      workers.execute(this::work);
+    }
+  }
+
+  /**
+   * Ajoute une tâche si aucune tâche n'est déjà en attente pour cette clé.
+   *
+   * @return QUEUED si la tâche a été ajoutée, ALREADY_PENDING si une tâche attend déjà pour cette clé,
+   * QUEUE_FULL si la file est pleine (la tâche n'est pas planifiée)
+   */
+  public SubmitResult submit(K key, Runnable task) {
+    if (!pendingKeys.add(key)) {
+      return SubmitResult.ALREADY_PENDING;
+    }
+
+    if (!queue.offer(new KeyedTask<>(key, task))) {
+      pendingKeys.remove(key);
+      return SubmitResult.QUEUE_FULL;
+    }
+    return SubmitResult.QUEUED;
+  }
+
+  public int size() {
+    return queue.size();
+  }
+
+  private void work() {
+    while (!closed && !Thread.currentThread().isInterrupted()) {
+      KeyedTask<K> keyedTask;
+      try {
+        keyedTask = queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+
+      // La clé est libérée avant l'exécution : une modification ultérieure pourra être replanifiée
+      pendingKeys.remove(keyedTask.key());
+      try {
+        keyedTask.task().run();
+      } catch (RuntimeException e) {
+        log.error("Background task for key {} failed", keyedTask.key(), e);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    workers.shutdownNow();
+  }
+
+  public enum SubmitResult {
+    QUEUED,
+    ALREADY_PENDING,
+    QUEUE_FULL
+  }
+
+  private record KeyedTask<K>(K key, Runnable task) {
+  }
+}
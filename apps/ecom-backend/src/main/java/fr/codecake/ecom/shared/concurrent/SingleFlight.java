@@ -0,0 +1,69 @@
+package fr.codecake.ecom.shared.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Regroupe les exécutions concurrentes d'une même opération par clé ("single-flight").
+ * - Le premier appelant pour une clé exécute l'opération dans son propre thread.
+ * - Les appelants suivants attendent son résultat au lieu de relancer l'opération.
+ * L'attente passe par un {@link CompletableFuture} : un thread virtuel est "parké", pas épinglé.
+ *
+ * @param <K> Type de la clé
+ * @param <V> Type du résultat partagé
+ */
+public final class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * Exécute l'opération pour cette clé, ou attend celle déjà en cours.
+   *
+   * @param key Clé de regroupement (ex : le `sub` du JWT)
+   * @param operation Opération à exécuter si aucune n'est en cours pour cette clé
+   * @return Le résultat de l'opération, partagé entre tous les appelants concurrents
+   */
+  public V execute(K key, Supplier<V> operation) {
+    CompletableFuture<V> flight = new CompletableFuture<>();
+    CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+
+    if (running != null) {
+      return join(running);
+    }
+
+    try {
+      V result = operation.get();
+      flight.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      flight.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, flight);
+    }
+  }
+
+  /**
+   * Nombre de clés ayant une opération en cours.
+   */
+  public int inFlightCount() {
+    return inFlight.size();
+  }
+
+  private static <V> V join(CompletableFuture<V> running) {
+    try {
+      return running.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+}
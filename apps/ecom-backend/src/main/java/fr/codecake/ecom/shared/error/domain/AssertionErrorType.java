@@ -10,5 +10,9 @@ public enum AssertionErrorType {
   STRING_TOO_LONG,
   STRING_TOO_SHORT,
   TOO_MANY_ELEMENTS,
-  NOT_A_COLOR
+  NOT_A_COLOR,
+  INVALID_CURSOR,
+  UNSUPPORTED_PICTURE_FORMAT,
+  PICTURE_TOO_LARGE,
+  UNSUPPORTED_SORT
 }
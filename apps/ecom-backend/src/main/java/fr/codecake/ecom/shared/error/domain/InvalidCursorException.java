@@ -0,0 +1,13 @@
+package fr.codecake.ecom.shared.error.domain;
+
+public class InvalidCursorException extends AssertionException {
+
+  public InvalidCursorException(String field, String message) {
+    super(field, message);
+  }
+
+  @Override
+  public AssertionErrorType type() {
+    return AssertionErrorType.INVALID_CURSOR;
+  }
+}
@@ -0,0 +1,23 @@
+package fr.codecake.ecom.shared.error.domain;
+
+import java.util.Map;
+
+public class PictureTooLargeException extends AssertionException {
+
+  private final long maxSize;
+
+  public PictureTooLargeException(String field, long maxSize) {
+    super(field, String.format("The picture in \"%s\" exceeds the maximum size of %d bytes", field, maxSize));
+    this.maxSize = maxSize;
+  }
+
+  @Override
+  public AssertionErrorType type() {
+    return AssertionErrorType.PICTURE_TOO_LARGE;
+  }
+
+  @Override
+  public Map<String, String> parameters() {
+    return Map.of("maxSize", String.valueOf(maxSize));
+  }
+}
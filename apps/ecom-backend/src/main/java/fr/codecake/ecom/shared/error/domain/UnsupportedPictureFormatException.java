@@ -0,0 +1,13 @@
+package fr.codecake.ecom.shared.error.domain;
+
+public class UnsupportedPictureFormatException extends AssertionException {
+
+  public UnsupportedPictureFormatException(String field, String message) {
+    super(field, message);
+  }
+
+  @Override
+  public AssertionErrorType type() {
+    return AssertionErrorType.UNSUPPORTED_PICTURE_FORMAT;
+  }
+}
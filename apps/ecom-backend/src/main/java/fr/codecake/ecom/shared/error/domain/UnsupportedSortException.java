@@ -0,0 +1,13 @@
+package fr.codecake.ecom.shared.error.domain;
+
+public class UnsupportedSortException extends AssertionException {
+
+  public UnsupportedSortException(String field, String message) {
+    super(field, message);
+  }
+
+  @Override
+  public AssertionErrorType type() {
+    return AssertionErrorType.UNSUPPORTED_SORT;
+  }
+}
@@ -0,0 +1,33 @@
+package fr.codecake.ecom.shared.error.infrastructure.primary;
+
+import fr.codecake.ecom.shared.error.domain.AssertionException;
+import fr.codecake.ecom.shared.error.domain.PictureTooLargeException;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Traduit les erreurs du domaine en réponses ProblemDetail pour toutes les ressources REST.
+ * - Image trop volumineuse : 413.
+ * - Autres assertions (paramètre invalide, curseur de pagination invalide...) : 400.
+ * - Entité introuvable : 404.
+ */
+@RestControllerAdvice
+public class AssertionErrorsHandler {
+
+  @ExceptionHandler(AssertionException.class)
+  public ProblemDetail handleAssertionError(AssertionException exception) {
+    HttpStatus status = exception instanceof PictureTooLargeException ? HttpStatus.PAYLOAD_TOO_LARGE : HttpStatus.BAD_REQUEST;
+    ProblemDetail problem = ProblemDetail.forStatusAndDetail(status, exception.getMessage());
+    problem.setProperty("errorType", exception.type().name());
+    problem.setProperty("field", exception.field());
+    return problem;
+  }
+
+  @ExceptionHandler(EntityNotFoundException.class)
+  public ProblemDetail handleEntityNotFound(EntityNotFoundException exception) {
+    return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, exception.getMessage());
+  }
+}
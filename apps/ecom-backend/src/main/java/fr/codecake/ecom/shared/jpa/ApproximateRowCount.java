@@ -0,0 +1,78 @@
+package fr.codecake.ecom.shared.jpa;
+
+import fr.codecake.ecom.shared.concurrent.SingleFlight;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Nombre approximatif de lignes d'une table, pour les écrans qui affichent un total sans avoir besoin d'un chiffre exact.
+ * - Lu dans les statistiques de PostgreSQL (`pg_class.reltuples`, mises à jour par ANALYZE / autovacuum) :
+ *   pas de parcours complet de la table comme avec `count(*)`.
+ * - Si la table n'a jamais été analysée, un `count(*)` exact est fait à la place.
+ * - La valeur est mise en cache par table pendant `application.approximate-count.ttl`.
+ */
+@Component
+public class ApproximateRowCount {
+
+  private static final String ESTIMATE_SQL = "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate readOnlyTransactionTemplate;
+  private final String schema;
+  private final Duration ttl;
+  private final Clock clock;
+
+  private final ConcurrentMap<String, CachedCount> counts = new ConcurrentHashMap<>();
+  // Un seul rafraîchissement à la fois par table
+  private final SingleFlight<String, Long> refreshFlight = new SingleFlight<>();
+
+  public ApproximateRowCount(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             @Value("${spring.jpa.properties.hibernate.default_schema}") String schema,
+                             @Value("${application.approximate-count.ttl:5m}") Duration ttl) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+    this.schema = schema;
+    this.ttl = ttl;
+    this.clock = Clock.systemUTC();
+  }
+
+  /**
+   * Retourne le nombre approximatif de lignes de la table (nom sans schéma, ex : "product").
+   */
+  public long of(String table) {
+    CachedCount cached = counts.get(table);
+    if (cached != null && clock.instant().isBefore(cached.expiresAt())) {
+      return cached.count();
+    }
+
+    return refreshFlight.execute(table, () -> {
+      long count = readOnlyTransactionTemplate.execute(status -> estimate(table));
+      counts.put(table, new CachedCount(count, clock.instant().plus(ttl)));
+      return count;
+    });
+  }
+
+  private long estimate(String table) {
+    String qualifiedTable = schema + "." + table;
+    Long estimate = jdbcTemplate.queryForObject(ESTIMATE_SQL, Long.class, qualifiedTable);
+    if (estimate != null && estimate >= 0) {
+      return estimate;
+    }
+    // reltuples vaut -1 tant que la table n'a pas été analysée : comptage exact
+    Long exactCount = jdbcTemplate.queryForObject("SELECT count(*) FROM " + qualifiedTable, Long.class);
+    return exactCount == null ? 0 : exactCount;
+  }
+
+  private record CachedCount(long count, Instant expiresAt) {
+  }
+}
@@ -0,0 +1,41 @@
+package fr.codecake.ecom.shared.pagination.domain;
+
+import fr.codecake.ecom.shared.error.domain.Assert;
+import fr.codecake.ecom.shared.error.domain.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position dans un listing trié par (clé de tri, id) : dernière ligne renvoyée par la page précédente.
+ * Exposée au client sous forme opaque (Base64 URL-safe), il ne doit ni la construire ni l'interpréter.
+ *
+ * @param sortKey Valeur de la clé de tri de la dernière ligne (ex : le nom)
+ * @param id Identifiant de la dernière ligne, départage les lignes ayant la même clé de tri
+ */
+public record KeysetCursor(String sortKey, long id) {
+
+  private static final char SEPARATOR = '\n';
+
+  public KeysetCursor {
+    Assert.notNull("sortKey", sortKey);
+  }
+
+  public String encode() {
+    String raw = id + String.valueOf(SEPARATOR) + sortKey;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static KeysetCursor decode(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = raw.indexOf(SEPARATOR);
+      if (separator < 0) {
+        throw new InvalidCursorException("cursor", "Invalid pagination cursor");
+      }
+      return new KeysetCursor(raw.substring(separator + 1), Long.parseLong(raw.substring(0, separator)));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidCursorException("cursor", "Invalid pagination cursor");
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package fr.codecake.ecom.shared.pagination.domain;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page d'un listing paginé par curseur.
+ *
+ * @param content Éléments de la page
+ * @param nextCursor Curseur opaque de la page suivante, null s'il s'agit de la dernière page
+ */
+public record KeysetPage<T>(List<T> content, String nextCursor) {
+
+  /**
+   * Construit une page à partir des lignes lues avec une limite de `size + 1` :
+   * la ligne supplémentaire indique seulement qu'une page suivante existe.
+   */
+  public static <T> KeysetPage<T> of(List<T> rows, int size, Function<T, KeysetCursor> cursorOf) {
+    if (rows.size() <= size) {
+      return new KeysetPage<>(List.copyOf(rows), null);
+    }
+    List<T> content = List.copyOf(rows.subList(0, size));
+    return new KeysetPage<>(content, cursorOf.apply(content.getLast()).encode());
+  }
+
+  public boolean hasNext() {
+    return nextCursor != null;
+  }
+
+  public <R> KeysetPage<R> map(Function<T, R> mapper) {
+    return new KeysetPage<>(content.stream().map(mapper).toList(), nextCursor);
+  }
+}
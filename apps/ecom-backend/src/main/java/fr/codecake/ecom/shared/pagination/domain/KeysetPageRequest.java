@@ -0,0 +1,27 @@
+package fr.codecake.ecom.shared.pagination.domain;
+
+import fr.codecake.ecom.shared.error.domain.Assert;
+
+import java.util.Optional;
+
+/**
+ * Demande d'une page d'un listing paginé par curseur (keyset / seek) :
+ * pas d'OFFSET ni de COUNT, le coût d'une page ne dépend pas de sa profondeur.
+ *
+ * @param cursor Curseur opaque renvoyé avec la page précédente, null pour la première page
+ * @param size Nombre maximum d'éléments de la page
+ */
+public record KeysetPageRequest(String cursor, int size) {
+
+  public KeysetPageRequest {
+    Assert.field("size", size).min(1).max(1000);
+  }
+
+  public static KeysetPageRequest first(int size) {
+    return new KeysetPageRequest(null, size);
+  }
+
+  public Optional<KeysetCursor> after() {
+    return cursor == null || cursor.isBlank() ? Optional.empty() : Optional.of(KeysetCursor.decode(cursor));
+  }
+}
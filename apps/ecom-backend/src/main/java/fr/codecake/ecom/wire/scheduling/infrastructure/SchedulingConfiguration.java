@@ -0,0 +1,9 @@
+package fr.codecake.ecom.wire.scheduling.infrastructure;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
@@ -0,0 +1,180 @@
+package fr.codecake.ecom.order.application;
+
+import com.nimbusds.jose.shaded.gson.internal.LinkedTreeMap;
+import fr.codecake.ecom.order.domain.user.aggregate.User;
+import fr.codecake.ecom.order.domain.user.aggregate.UserBuilder;
+import fr.codecake.ecom.order.domain.user.repository.UserRepository;
+import fr.codecake.ecom.order.domain.user.vo.UserEmail;
+import fr.codecake.ecom.order.domain.user.vo.UserFirstname;
+import fr.codecake.ecom.order.domain.user.vo.UserLastname;
+import fr.codecake.ecom.order.domain.user.vo.UserPublicId;
+import fr.codecake.ecom.order.infrastructure.secondary.service.kinde.KindeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UsersApplicationServiceTest {
+
+  private static final String EMAIL = "alice@codecake.fr";
+
+  @Test
+  void shouldRunOneSyncAtATimePerUserWhetherForcedOrNot() throws Exception {
+    UserRepository userRepository = mock(UserRepository.class);
+    List<User> savedUsers = new ArrayList<>();
+    when(userRepository.getOneByEmail(any())).thenAnswer(invocation -> {
+      synchronized (savedUsers) {
+        return savedUsers.stream().findFirst();
+      }
+    });
+    doAnswer(invocation -> {
+      synchronized (savedUsers) {
+        savedUsers.add(invocation.getArgument(0));
+      }
+      return null;
+    }).when(userRepository).save(any());
+
+    // Kinde répond quand tous les appelants sont en attente : ils arrivent tous pendant la même synchronisation
+    CountDownLatch kindeGate = new CountDownLatch(1);
+    KindeService kindeService = mock(KindeService.class);
+    Map<String, Object> userInfo = Map.of("preferred_email", EMAIL, "first_name", "Alice", "last_name", "Martin");
+    when(kindeService.getUserInfo(anyString())).thenAnswer(invocation -> {
+      kindeGate.await();
+      return userInfo;
+    });
+    when(kindeService.refreshUserInfo(anyString())).thenAnswer(invocation -> {
+      kindeGate.await();
+      return userInfo;
+    });
+
+    UsersApplicationService usersApplicationService = new UsersApplicationService(userRepository, kindeService,
+      new TransactionTemplate(mock(PlatformTransactionManager.class)), false, 10, 1);
+    Jwt jwt = jwt();
+
+    List<Thread> threads = new ArrayList<>();
+    List<CompletableFuture<User>> results = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      boolean forceResync = i % 2 == 1;
+      CompletableFuture<User> result = new CompletableFuture<>();
+      results.add(result);
+      threads.add(Thread.ofPlatform().start(() -> {
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+        try {
+          result.complete(usersApplicationService.getAuthenticatedUserWithSync(jwt, forceResync));
+        } catch (RuntimeException e) {
+          result.completeExceptionally(e);
+        } finally {
+          SecurityContextHolder.clearContext();
+        }
+      }));
+    }
+    awaitAllWaiting(threads);
+    kindeGate.countDown();
+
+    for (CompletableFuture<User> result : results) {
+      assertThat(result.get(10, TimeUnit.SECONDS).getEmail()).isEqualTo(new UserEmail(EMAIL));
+    }
+    // Un seul appel à Kinde (getUserInfo ou refreshUserInfo) et une seule création
+    assertThat(mockingDetails(kindeService).getInvocations()).hasSize(1);
+    verify(userRepository).save(any());
+    assertThat(savedUsers).hasSize(1);
+  }
+
+  @Test
+  void shouldServeLocalUserAndSyncInBackground() throws Exception {
+    UserRepository userRepository = mock(UserRepository.class);
+    User localUser = UserBuilder.user()
+      .email(new UserEmail(EMAIL))
+      .firstname(new UserFirstname("Alice"))
+      .lastname(new UserLastname("Martin"))
+      .userPublicId(new UserPublicId(UUID.randomUUID()))
+      .dbId(1L)
+      .lastModifiedDate(Instant.now().minus(1, ChronoUnit.DAYS))
+      .authorities(Set.of())
+      .build();
+    when(userRepository.getOneByEmail(any())).thenReturn(Optional.of(localUser));
+
+    // Le premier appel à Kinde bloque le seul worker : la synchronisation suivante reste dans la file
+    CountDownLatch workerBusy = new CountDownLatch(1);
+    CountDownLatch kindeGate = new CountDownLatch(1);
+    List<String> syncedSubjects = new CopyOnWriteArrayList<>();
+    KindeService kindeService = mock(KindeService.class);
+    when(kindeService.getUserInfo(anyString())).thenAnswer(invocation -> {
+      syncedSubjects.add(invocation.getArgument(0));
+      workerBusy.countDown();
+      kindeGate.await();
+      return Map.of("preferred_email", EMAIL, "first_name", "Alice", "last_name", "Martin");
+    });
+
+    UsersApplicationService usersApplicationService = new UsersApplicationService(userRepository, kindeService,
+      new TransactionTemplate(mock(PlatformTransactionManager.class)), true, 1, 1);
+    SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt("kp_1")));
+    try {
+      assertThat(usersApplicationService.getAuthenticatedUserWithSync(jwt("kp_1"), false)).isSameAs(localUser);
+      assertThat(workerBusy.await(5, TimeUnit.SECONDS)).isTrue();
+
+      // kp_2 occupe la seule place de la file ; kp_3 la trouve pleine mais reçoit quand même l'utilisateur local
+      assertThat(usersApplicationService.getAuthenticatedUserWithSync(jwt("kp_2"), false)).isSameAs(localUser);
+      assertThat(usersApplicationService.getAuthenticatedUserWithSync(jwt("kp_3"), false)).isSameAs(localUser);
+      kindeGate.countDown();
+
+      verify(kindeService, timeout(5000).times(2)).getUserInfo(anyString());
+      assertThat(syncedSubjects).containsExactly("kp_1", "kp_2");
+      verify(userRepository, timeout(5000).times(2)).markVerified(eq(localUser.getUserPublicId()), any());
+    } finally {
+      SecurityContextHolder.clearContext();
+      usersApplicationService.stopBackgroundSync();
+    }
+  }
+
+  private static void awaitAllWaiting(List<Thread> threads) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!threads.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING)) {
+      assertThat(System.nanoTime()).as(() -> threads.stream().map(Thread::getState).toList().toString()).isLessThan(deadline);
+      Thread.sleep(10);
+    }
+  }
+
+  private static Jwt jwt() {
+    return jwt("kp_123");
+  }
+
+  // Connexion chez Kinde plus récente que la dernière modification locale : la synchronisation appelle Kinde
+  private static Jwt jwt(String subject) {
+    LinkedTreeMap<String, String> role = new LinkedTreeMap<>();
+    role.put("key", "ROLE_USER");
+    return Jwt.withTokenValue("token")
+      .header("alg", "none")
+      .subject(subject)
+      .claim("email", EMAIL)
+      .claim("roles", List.of(role))
+      .claim("last_signed_in", Instant.now().getEpochSecond())
+      .build();
+  }
+}
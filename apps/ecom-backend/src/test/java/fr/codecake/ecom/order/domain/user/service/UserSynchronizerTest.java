@@ -0,0 +1,111 @@
+package fr.codecake.ecom.order.domain.user.service;
+
+import fr.codecake.ecom.order.domain.user.aggregate.User;
+import fr.codecake.ecom.order.domain.user.aggregate.UserBuilder;
+import fr.codecake.ecom.order.domain.user.repository.UserRepository;
+import fr.codecake.ecom.order.domain.user.vo.UserEmail;
+import fr.codecake.ecom.order.domain.user.vo.UserFirstname;
+import fr.codecake.ecom.order.domain.user.vo.UserLastname;
+import fr.codecake.ecom.order.domain.user.vo.UserPublicId;
+import fr.codecake.ecom.order.infrastructure.secondary.service.kinde.KindeClientErrorException;
+import fr.codecake.ecom.order.infrastructure.secondary.service.kinde.KindeService;
+import fr.codecake.ecom.order.infrastructure.secondary.service.kinde.KindeUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserSynchronizerTest {
+
+  private static final String EMAIL = "alice@codecake.fr";
+  private static final Instant SIGNED_IN = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+  @Test
+  void shouldRecordVerificationWhenKindeConfirmsAnUnchangedProfile() {
+    UserRepository userRepository = mock(UserRepository.class);
+    KindeService kindeService = mock(KindeService.class);
+    UserPublicId publicId = new UserPublicId(UUID.randomUUID());
+    // Le `last_signed_in` du token est plus récent que la dernière modification locale
+    User localUser = user(publicId, SIGNED_IN.minus(1, ChronoUnit.HOURS));
+    when(userRepository.getOneByEmail(new UserEmail(EMAIL))).thenReturn(Optional.of(localUser));
+    // Kinde renvoie le même profil, sans `last_signed_in`
+    when(kindeService.getUserInfo("kp_123")).thenReturn(Map.of("preferred_email", EMAIL, "first_name", "Alice", "last_name", "Martin"));
+    UserSynchronizer userSynchronizer = new UserSynchronizer(userRepository, kindeService);
+
+    userSynchronizer.syncWithIdp(jwt(), false);
+
+    verify(userRepository).markVerified(eq(publicId), any());
+    verify(userRepository, never()).save(any());
+
+    // Vérification enregistrée : la requête suivante ne rappelle pas Kinde
+    when(userRepository.getOneByEmail(new UserEmail(EMAIL))).thenReturn(Optional.of(user(publicId, Instant.now())));
+    userSynchronizer.syncWithIdp(jwt(), false);
+
+    verify(kindeService, times(1)).getUserInfo("kp_123");
+  }
+
+  @Test
+  void shouldServeLocalUserWhenKindeIsUnavailable() {
+    UserRepository userRepository = mock(UserRepository.class);
+    KindeService kindeService = mock(KindeService.class);
+    User localUser = user(new UserPublicId(UUID.randomUUID()), SIGNED_IN.minus(1, ChronoUnit.HOURS));
+    when(kindeService.getUserInfo("kp_123")).thenThrow(new KindeUnavailableException("down"));
+    UserSynchronizer userSynchronizer = new UserSynchronizer(userRepository, kindeService);
+
+    assertThat(userSynchronizer.fetchIdpChanges(jwt(), Optional.of(localUser), false)).isEmpty();
+    // Sans utilisateur local, il n'y a rien à servir : l'indisponibilité remonte
+    assertThatThrownBy(() -> userSynchronizer.fetchIdpChanges(jwt(), Optional.empty(), false))
+      .isInstanceOf(KindeUnavailableException.class);
+  }
+
+  @Test
+  void shouldServeLocalUserWhenKindeRejectsTheRequest() {
+    UserRepository userRepository = mock(UserRepository.class);
+    KindeService kindeService = mock(KindeService.class);
+    User localUser = user(new UserPublicId(UUID.randomUUID()), SIGNED_IN.minus(1, ChronoUnit.HOURS));
+    when(kindeService.getUserInfo("kp_123")).thenThrow(new KindeClientErrorException("404 NOT_FOUND", null));
+    UserSynchronizer userSynchronizer = new UserSynchronizer(userRepository, kindeService);
+
+    assertThat(userSynchronizer.fetchIdpChanges(jwt(), Optional.of(localUser), false)).isEmpty();
+    assertThatThrownBy(() -> userSynchronizer.fetchIdpChanges(jwt(), Optional.empty(), false))
+      .isInstanceOf(KindeClientErrorException.class);
+  }
+
+  private static User user(UserPublicId publicId, Instant lastModifiedDate) {
+    return UserBuilder.user()
+      .email(new UserEmail(EMAIL))
+      .firstname(new UserFirstname("Alice"))
+      .lastname(new UserLastname("Martin"))
+      .userPublicId(publicId)
+      .dbId(1L)
+      .lastModifiedDate(lastModifiedDate)
+      .authorities(Set.of())
+      .build();
+  }
+
+  private static Jwt jwt() {
+    return Jwt.withTokenValue("token")
+      .header("alg", "none")
+      .subject("kp_123")
+      .claim("email", EMAIL)
+      .claim("last_signed_in", SIGNED_IN.getEpochSecond())
+      .claim("roles", List.of())
+      .build();
+  }
+}
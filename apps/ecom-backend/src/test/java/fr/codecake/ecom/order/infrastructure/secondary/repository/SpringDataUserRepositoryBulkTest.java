@@ -0,0 +1,119 @@
+package fr.codecake.ecom.order.infrastructure.secondary.repository;
+
+import fr.codecake.ecom.order.domain.user.aggregate.AuthorityBuilder;
+import fr.codecake.ecom.order.domain.user.aggregate.User;
+import fr.codecake.ecom.order.domain.user.aggregate.UserBuilder;
+import fr.codecake.ecom.order.domain.user.repository.UserRepository;
+import fr.codecake.ecom.order.domain.user.vo.AuthorityName;
+import fr.codecake.ecom.order.domain.user.vo.UserEmail;
+import fr.codecake.ecom.order.domain.user.vo.UserFirstname;
+import fr.codecake.ecom.order.domain.user.vo.UserLastname;
+import fr.codecake.ecom.order.domain.user.vo.UserPublicId;
+import fr.codecake.ecom.order.infrastructure.secondary.entity.AuthorityEntity;
+import fr.codecake.ecom.wire.postgresql.infrastructure.DatabaseConfiguration;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lecture groupée en plusieurs lots : chaque lot est lu dans sa propre transaction, sur un autre thread.
+ * Les données doivent donc être validées (pas de transaction de test) et sont supprimées après chaque test.
+ */
+@DataJpaTest(properties = {
+  "spring.datasource.url=jdbc:h2:mem:users-bulk;MODE=PostgreSQL;INIT=CREATE SCHEMA IF NOT EXISTS ecommerce_yt",
+  "spring.datasource.driver-class-name=org.h2.Driver",
+  "spring.datasource.username=sa",
+  "spring.datasource.password=",
+  "spring.liquibase.enabled=false",
+  "spring.jpa.hibernate.ddl-auto=create-drop",
+  "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+  "spring.jpa.properties.hibernate.generate_statistics=true",
+  "application.user-bulk.chunk-size=2"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SpringDataUserRepository.class, UserCache.class, DatabaseConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SpringDataUserRepositoryBulkTest {
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private JpaUserRepository jpaUserRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @MockBean
+  private UserLastSeenWriteBehind userLastSeenWriteBehind;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    transactionTemplate.executeWithoutResult(status -> entityManager.persist(new AuthorityEntity("ROLE_USER")));
+    statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @AfterEach
+  void cleanUp() {
+    transactionTemplate.executeWithoutResult(status -> {
+      // Supprime aussi le rôle ROLE_USER (CascadeType.REMOVE sur UserEntity.authorities)
+      jpaUserRepository.deleteAll();
+      AuthorityEntity authority = entityManager.find(AuthorityEntity.class, "ROLE_USER");
+      if (authority != null) {
+        entityManager.remove(authority);
+      }
+    });
+  }
+
+  @Test
+  void shouldLoadLargeBatchesInConcurrentChunks() {
+    List<UserPublicId> publicIds = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      User user = newUser("bulk-" + i + "@codecake.fr");
+      transactionTemplate.executeWithoutResult(status -> userRepository.save(user));
+      publicIds.add(user.getUserPublicId());
+    }
+    statistics.clear();
+
+    Map<UserPublicId, User> users = userRepository.getByPublicIds(publicIds);
+
+    // 5 utilisateurs en lots de 2 : 3 requêtes
+    assertThat(users).containsOnlyKeys(publicIds);
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+  }
+
+  private static User newUser(String email) {
+    return UserBuilder.user()
+      .email(new UserEmail(email))
+      .firstname(new UserFirstname("Jane"))
+      .lastname(new UserLastname("Doe"))
+      .userPublicId(new UserPublicId(UUID.randomUUID()))
+      .authorities(Set.of(AuthorityBuilder.authority().name(new AuthorityName("ROLE_USER")).build()))
+      .build();
+  }
+}
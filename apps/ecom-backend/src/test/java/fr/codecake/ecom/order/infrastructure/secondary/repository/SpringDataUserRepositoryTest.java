@@ -0,0 +1,180 @@
+package fr.codecake.ecom.order.infrastructure.secondary.repository;
+
+import fr.codecake.ecom.order.domain.user.aggregate.AuthorityBuilder;
+import fr.codecake.ecom.order.domain.user.aggregate.User;
+import fr.codecake.ecom.order.domain.user.aggregate.UserBuilder;
+import fr.codecake.ecom.order.domain.user.repository.UserRepository;
+import fr.codecake.ecom.order.domain.user.vo.AuthorityName;
+import fr.codecake.ecom.order.domain.user.vo.UserAddress;
+import fr.codecake.ecom.order.domain.user.vo.UserAddressToUpdate;
+import fr.codecake.ecom.order.domain.user.vo.UserEmail;
+import fr.codecake.ecom.order.domain.user.vo.UserFirstname;
+import fr.codecake.ecom.order.domain.user.vo.UserLastname;
+import fr.codecake.ecom.order.domain.user.vo.UserPublicId;
+import fr.codecake.ecom.order.infrastructure.secondary.entity.AuthorityEntity;
+import fr.codecake.ecom.wire.postgresql.infrastructure.DatabaseConfiguration;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+  "spring.datasource.url=jdbc:h2:mem:users;MODE=PostgreSQL;INIT=CREATE SCHEMA IF NOT EXISTS ecommerce_yt",
+  "spring.datasource.driver-class-name=org.h2.Driver",
+  "spring.datasource.username=sa",
+  "spring.datasource.password=",
+  "spring.liquibase.enabled=false",
+  "spring.jpa.hibernate.ddl-auto=create-drop",
+  "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+  "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SpringDataUserRepository.class, UserCache.class, DatabaseConfiguration.class})
+class SpringDataUserRepositoryTest {
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @MockBean
+  private UserLastSeenWriteBehind userLastSeenWriteBehind;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    entityManager.persist(new AuthorityEntity("ROLE_USER"));
+    entityManager.flush();
+    entityManager.clear();
+    statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void shouldInsertNewUsersInBatchesWithoutLoadingThem() {
+    // Sur une séquence neuve, l'optimiseur "pooled" appelle nextval deux fois avant de disposer d'un bloc
+    insertUser("first-new@codecake.fr");
+    insertUser("second-new@codecake.fr");
+    statistics.clear();
+
+    for (int i = 0; i < 3; i++) {
+      userRepository.save(newUser("new-" + i + "@codecake.fr", "Jane"));
+    }
+    entityManager.flush();
+
+    // Pas de nextval : un INSERT groupé dans ecommerce_user + un INSERT groupé dans user_authority
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    assertThat(userRepository.getOneByEmail(new UserEmail("new-2@codecake.fr"))).isPresent();
+  }
+
+  @Test
+  void shouldNotWriteUnchangedUser() {
+    User user = persistedUser("unchanged@codecake.fr");
+    statistics.clear();
+
+    userRepository.save(user);
+    entityManager.flush();
+
+    assertThat(statistics.getPrepareStatementCount()).isZero();
+  }
+
+  @Test
+  void shouldUpdateChangedUserWithSingleStatement() {
+    User user = persistedUser("changed@codecake.fr");
+    statistics.clear();
+
+    user.updateFromUser(newUser("changed@codecake.fr", "Janet"));
+    userRepository.save(user);
+    entityManager.flush();
+
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    entityManager.clear();
+    assertThat(userRepository.getOneByEmail(new UserEmail("changed@codecake.fr")).orElseThrow()
+      .getFirstname()).isEqualTo(new UserFirstname("Janet"));
+  }
+
+  @Test
+  void shouldServeRepeatedLookupsFromCache() {
+    User user = persistedUser("cached@codecake.fr");
+    statistics.clear();
+
+    assertThat(userRepository.getOneByEmail(new UserEmail("cached@codecake.fr"))).isPresent();
+    assertThat(userRepository.get(user.getUserPublicId())).isPresent();
+
+    assertThat(statistics.getPrepareStatementCount()).isZero();
+  }
+
+  @Test
+  void shouldReloadUserOnceAddressUpdated() {
+    User user = persistedUser("address@codecake.fr");
+
+    userRepository.updateAddress(user.getUserPublicId(), new UserAddressToUpdate(user.getUserPublicId(),
+      new UserAddress("1 rue de la Paix", "Paris", "75002", "France")));
+    entityManager.clear();
+
+    assertThat(userRepository.get(user.getUserPublicId()).orElseThrow().getUserAddress().city()).isEqualTo("Paris");
+  }
+
+  @Test
+  void shouldLoadUserWithAuthoritiesInSingleQuery() {
+    insertUser("single@codecake.fr");
+    statistics.clear();
+
+    User user = userRepository.getOneByEmail(new UserEmail("single@codecake.fr")).orElseThrow();
+
+    assertThat(user.getAuthorities()).hasSize(1);
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldLoadSeveralUsersWithAuthoritiesInSingleQuery() {
+    List<UserPublicId> publicIds = List.of(
+      insertUser("first@codecake.fr"), insertUser("second@codecake.fr"), insertUser("third@codecake.fr"));
+    statistics.clear();
+
+    Map<UserPublicId, User> users = userRepository.getByPublicIds(publicIds);
+
+    assertThat(users.values()).hasSize(3).allSatisfy(user -> assertThat(user.getAuthorities()).hasSize(1));
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+  }
+
+  private UserPublicId insertUser(String email) {
+    User user = newUser(email, "Jane");
+    userRepository.save(user);
+    entityManager.flush();
+    entityManager.clear();
+    return user.getUserPublicId();
+  }
+
+  private User persistedUser(String email) {
+    userRepository.save(newUser(email, "Jane"));
+    entityManager.flush();
+    entityManager.clear();
+    return userRepository.getOneByEmail(new UserEmail(email)).orElseThrow();
+  }
+
+  private static User newUser(String email, String firstname) {
+    return UserBuilder.user()
+      .email(new UserEmail(email))
+      .firstname(new UserFirstname(firstname))
+      .lastname(new UserLastname("Doe"))
+      .userPublicId(new UserPublicId(UUID.randomUUID()))
+      .authorities(Set.of(AuthorityBuilder.authority().name(new AuthorityName("ROLE_USER")).build()))
+      .build();
+  }
+}
@@ -0,0 +1,72 @@
+package fr.codecake.ecom.order.infrastructure.secondary.repository;
+
+import fr.codecake.ecom.order.domain.user.aggregate.User;
+import fr.codecake.ecom.order.domain.user.aggregate.UserBuilder;
+import fr.codecake.ecom.order.domain.user.vo.UserEmail;
+import fr.codecake.ecom.order.domain.user.vo.UserFirstname;
+import fr.codecake.ecom.order.domain.user.vo.UserLastname;
+import fr.codecake.ecom.order.domain.user.vo.UserPublicId;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserCacheTest {
+
+  private static final UserEmail EMAIL = new UserEmail("alice@codecake.fr");
+  private static final UserPublicId PUBLIC_ID = new UserPublicId(UUID.randomUUID());
+
+  private final UserCache userCache = new UserCache(Duration.ofMinutes(1), 100);
+
+  @Test
+  void shouldNotCacheUserInvalidatedWhileItWasLoading() {
+    User staleUser = user("Martin");
+    AtomicInteger loads = new AtomicInteger();
+
+    // L'écriture est validée (invalidation après commit) pendant que la lecture est en cours
+    userCache.get(EMAIL, () -> {
+      loads.incrementAndGet();
+      userCache.invalidate(staleUser.getUserPublicId());
+      return Optional.of(staleUser);
+    });
+    User freshUser = userCache.get(EMAIL, () -> {
+      loads.incrementAndGet();
+      return Optional.of(user("Dupont"));
+    }).orElseThrow();
+
+    assertThat(loads).hasValue(2);
+    assertThat(freshUser.getLastname()).isEqualTo(new UserLastname("Dupont"));
+  }
+
+  @Test
+  void shouldCacheUsersLoadedAfterAnInvalidation() {
+    User cachedUser = user("Martin");
+    userCache.invalidate(cachedUser.getUserPublicId());
+    AtomicInteger loads = new AtomicInteger();
+
+    for (int i = 0; i < 3; i++) {
+      userCache.get(cachedUser.getUserPublicId(), () -> {
+        loads.incrementAndGet();
+        return Optional.of(cachedUser);
+      });
+    }
+
+    assertThat(loads).hasValue(1);
+  }
+
+  private static User user(String lastname) {
+    return UserBuilder.user()
+      .email(EMAIL)
+      .firstname(new UserFirstname("Alice"))
+      .lastname(new UserLastname(lastname))
+      .userPublicId(PUBLIC_ID)
+      .dbId(1L)
+      .authorities(Set.of())
+      .build();
+  }
+}
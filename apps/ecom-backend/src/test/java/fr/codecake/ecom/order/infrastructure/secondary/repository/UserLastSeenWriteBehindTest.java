@@ -0,0 +1,67 @@
+package fr.codecake.ecom.order.infrastructure.secondary.repository;
+
+import fr.codecake.ecom.order.domain.user.vo.UserPublicId;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class UserLastSeenWriteBehindTest {
+
+  private static final Instant NOW = Instant.parse("2026-10-17T10:00:00Z");
+
+  private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+  private final UserLastSeenWriteBehind writeBehind = new UserLastSeenWriteBehind(jdbcTemplate,
+    new TransactionTemplate(mock(PlatformTransactionManager.class)), "ecommerce_yt");
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldWriteLatestSightingOfEachUserInOneBatch() throws SQLException {
+    UserPublicId alice = new UserPublicId(UUID.randomUUID());
+    UserPublicId bob = new UserPublicId(UUID.randomUUID());
+    writeBehind.record(alice, NOW.minusSeconds(20));
+    writeBehind.record(alice, NOW);
+    writeBehind.record(alice, NOW.minusSeconds(10));
+    writeBehind.record(bob, NOW.minusSeconds(30));
+
+    assertThat(writeBehind.flush()).isEqualTo(2);
+
+    ArgumentCaptor<Collection<Map.Entry<UUID, Instant>>> batch = ArgumentCaptor.forClass(Collection.class);
+    ArgumentCaptor<ParameterizedPreparedStatementSetter<Map.Entry<UUID, Instant>>> setter =
+      ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+    verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture(), anyInt(), setter.capture());
+    assertThat(batch.getValue()).containsExactlyInAnyOrder(
+      Map.entry(alice.value(), NOW), Map.entry(bob.value(), NOW.minusSeconds(30)));
+
+    // Paramètres de l'UPDATE d'Alice : la date la plus récente
+    Map.Entry<UUID, Instant> aliceEntry = batch.getValue().stream()
+      .filter(entry -> entry.getKey().equals(alice.value()))
+      .findFirst()
+      .orElseThrow();
+    PreparedStatement statement = mock(PreparedStatement.class);
+    setter.getValue().setValues(statement, aliceEntry);
+    verify(statement).setTimestamp(1, Timestamp.from(NOW));
+    verify(statement).setObject(2, alice.value());
+
+    assertThat(writeBehind.pendingCount()).isZero();
+    assertThat(writeBehind.flush()).isZero();
+  }
+}
@@ -0,0 +1,48 @@
+package fr.codecake.ecom.order.infrastructure.secondary.service.kinde;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KindeHttpClientConfigurationTest {
+
+  // Conversion des durées (`2s`) comme dans l'application
+  private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+    .withInitializer(context -> context.getBeanFactory().setConversionService(new ApplicationConversionService()))
+    .withUserConfiguration(KindeHttpClientConfiguration.class)
+    .withPropertyValues("application.kinde.api=http://localhost");
+
+  @Test
+  void shouldCreatePooledClientOnlyWithoutHttp2() {
+    contextRunner.run(context -> {
+      assertThat(context).hasSingleBean(RestClient.class)
+        .hasSingleBean(PoolingHttpClientConnectionManager.class)
+        .hasSingleBean(CloseableHttpClient.class)
+        .doesNotHaveBean(HttpClient.class)
+        .doesNotHaveBean(ExecutorService.class);
+    });
+  }
+
+  @Test
+  void shouldCreateHttp2ClientWithoutPoolAndShutItsExecutorDownOnClose() {
+    AtomicReference<ExecutorService> executor = new AtomicReference<>();
+    contextRunner.withPropertyValues("application.kinde.http.http2=true").run(context -> {
+      assertThat(context).hasSingleBean(RestClient.class)
+        .hasSingleBean(HttpClient.class)
+        .doesNotHaveBean(PoolingHttpClientConnectionManager.class)
+        .doesNotHaveBean(CloseableHttpClient.class);
+      executor.set(context.getBean(ExecutorService.class));
+    });
+
+    assertThat(executor.get().isShutdown()).isTrue();
+  }
+}
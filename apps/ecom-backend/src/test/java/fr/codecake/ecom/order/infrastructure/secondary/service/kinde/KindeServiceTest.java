@@ -0,0 +1,224 @@
+package fr.codecake.ecom.order.infrastructure.secondary.service.kinde;
+
+import com.sun.net.httpserver.HttpExchange;
+import fr.codecake.ecom.shared.concurrent.CircuitBreaker;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KindeServiceTest {
+
+  private HttpServer server;
+  private final AtomicInteger tokenRequests = new AtomicInteger();
+  private final AtomicInteger userInfoRequests = new AtomicInteger();
+  private volatile long expiresIn = 3600;
+  private volatile CountDownLatch tokenGate = new CountDownLatch(0);
+  private volatile int userInfoStatus = 200;
+  private volatile long userInfoDelayMillis = 0;
+
+  @BeforeEach
+  void startStubServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    server.createContext("/oauth/token", exchange -> {
+      tokenRequests.incrementAndGet();
+      await(tokenGate);
+      respond(exchange, "{\"access_token\":\"token-" + tokenRequests.get()
+        + "\",\"token_type\":\"Bearer\",\"expires_in\":" + expiresIn + "}");
+    });
+    server.createContext("/api/v1/user", exchange -> {
+      userInfoRequests.incrementAndGet();
+      sleep(userInfoDelayMillis);
+      respond(exchange, userInfoStatus, "{\"id\":\"kp_123\"}");
+    });
+    server.start();
+  }
+
+  @AfterEach
+  void stopStubServer() {
+    server.stop(0);
+  }
+
+  @Test
+  void shouldReuseTokenAcrossCalls() {
+    KindeService kindeService = kindeService();
+
+    for (int i = 0; i < 5; i++) {
+      assertThat(kindeService.getUserInfo("kp_123")).containsEntry("id", "kp_123");
+    }
+
+    assertThat(tokenRequests).hasValue(1);
+  }
+
+  @Test
+  void shouldCoalesceConcurrentTokenRequests() throws Exception {
+    KindeService kindeService = kindeService();
+    tokenGate = new CountDownLatch(1);
+
+    List<Future<Map<String, Object>>> calls = new ArrayList<>();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < 20; i++) {
+        calls.add(executor.submit(() -> kindeService.getUserInfo("kp_123")));
+      }
+      Thread.sleep(200);
+      tokenGate.countDown();
+      for (Future<Map<String, Object>> call : calls) {
+        assertThat(call.get()).containsEntry("id", "kp_123");
+      }
+    }
+
+    assertThat(tokenRequests).hasValue(1);
+  }
+
+  @Test
+  void shouldRequestNewTokenOnceExpired() {
+    expiresIn = 0;
+    KindeService kindeService = kindeService();
+
+    kindeService.getUserInfo("kp_123");
+    kindeService.getUserInfo("kp_123");
+
+    assertThat(tokenRequests).hasValue(2);
+  }
+
+  @Test
+  void shouldKeepTokenForMinimumLifetimeWhenExpiresInIsTooShort() {
+    // Plus court que refresh-ahead (60s) : sans durée minimale, chaque appel redemanderait un token
+    expiresIn = 30;
+    KindeService kindeService = kindeService(new KindeUserInfoCache(Duration.ZERO, 0), circuitBreaker(Duration.ofSeconds(5)),
+      Duration.ofMinutes(1));
+
+    for (int i = 0; i < 5; i++) {
+      kindeService.getUserInfo("kp_123");
+    }
+
+    assertThat(tokenRequests).hasValue(1);
+  }
+
+  @Test
+  void shouldServeUserInfoFromCacheUntilRefreshed() {
+    KindeService kindeService = kindeService(new KindeUserInfoCache(Duration.ofMinutes(1), 100));
+
+    kindeService.getUserInfo("kp_123");
+    kindeService.getUserInfo("kp_123");
+    kindeService.refreshUserInfo("kp_123");
+
+    assertThat(userInfoRequests).hasValue(2);
+  }
+
+  @Test
+  void shouldFailFastOnceKindeKeepsFailing() {
+    userInfoStatus = 500;
+    KindeService kindeService = kindeService(circuitBreaker(Duration.ofSeconds(5)));
+
+    for (int i = 0; i < 5; i++) {
+      assertThatThrownBy(() -> kindeService.getUserInfo("kp_123")).isInstanceOf(KindeUnavailableException.class);
+    }
+
+    assertThat(userInfoRequests).hasValue(3);
+  }
+
+  @Test
+  void shouldFailFastOnceKindeIsSlow() {
+    userInfoDelayMillis = 300;
+    KindeService kindeService = kindeService(circuitBreaker(Duration.ofMillis(100)));
+
+    for (int i = 0; i < 3; i++) {
+      kindeService.getUserInfo("kp_123");
+    }
+    assertThatThrownBy(() -> kindeService.getUserInfo("kp_123")).isInstanceOf(KindeUnavailableException.class);
+
+    assertThat(userInfoRequests).hasValue(3);
+  }
+
+  @Test
+  void shouldNotOpenCircuitOnClientErrors() {
+    userInfoStatus = 404;
+    KindeService kindeService = kindeService(circuitBreaker(Duration.ofSeconds(5)));
+
+    for (int i = 0; i < 5; i++) {
+      assertThatThrownBy(() -> kindeService.getUserInfo("kp_123")).isInstanceOf(KindeClientErrorException.class);
+    }
+
+    assertThat(userInfoRequests).hasValue(5);
+  }
+
+  private KindeService kindeService() {
+    return kindeService(new KindeUserInfoCache(Duration.ZERO, 0));
+  }
+
+  private KindeService kindeService(CircuitBreaker circuitBreaker) {
+    return kindeService(new KindeUserInfoCache(Duration.ZERO, 0), circuitBreaker);
+  }
+
+  private KindeService kindeService(KindeUserInfoCache userInfoCache) {
+    return kindeService(userInfoCache, circuitBreaker(Duration.ofSeconds(5)));
+  }
+
+  private static CircuitBreaker circuitBreaker(Duration slowCallThreshold) {
+    return new CircuitBreaker("kinde", 3, Duration.ofMinutes(1), slowCallThreshold, 10, Duration.ofSeconds(1),
+      HttpClientErrorException.class::isInstance);
+  }
+
+  private KindeService kindeService(KindeUserInfoCache userInfoCache, CircuitBreaker circuitBreaker) {
+    return kindeService(userInfoCache, circuitBreaker, Duration.ZERO);
+  }
+
+  private KindeService kindeService(KindeUserInfoCache userInfoCache, CircuitBreaker circuitBreaker, Duration minLifetime) {
+    RestClient restClient = RestClient.builder()
+      .baseUrl("http://localhost:" + server.getAddress().getPort())
+      .build();
+    return new KindeService(restClient, circuitBreaker,
+      "client-id", "client-secret", "http://localhost/api", Duration.ofSeconds(60), Duration.ZERO,
+      minLifetime, userInfoCache);
+  }
+
+  private static void respond(HttpExchange exchange, String body) throws IOException {
+    respond(exchange, 200, body);
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream responseBody = exchange.getResponseBody()) {
+      responseBody.write(bytes);
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
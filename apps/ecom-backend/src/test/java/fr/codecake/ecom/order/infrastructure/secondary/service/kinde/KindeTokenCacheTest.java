@@ -0,0 +1,90 @@
+package fr.codecake.ecom.order.infrastructure.secondary.service.kinde;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KindeTokenCacheTest {
+
+  private final MutableClock clock = new MutableClock(Instant.parse("2026-10-17T10:00:00Z"));
+  private final AtomicInteger tokenRequests = new AtomicInteger();
+
+  @Test
+  void shouldNeverServeShortLivedTokenAfterItsRealExpiry() {
+    // 20s de validité, bien moins que refresh-ahead (60s) + min-lifetime (5min)
+    KindeTokenCache tokenCache = tokenCache(20L);
+
+    assertThat(tokenCache.get()).isEqualTo("token-1");
+    clock.advance(Duration.ofSeconds(5));
+    assertThat(tokenCache.get()).isEqualTo("token-1");
+
+    clock.advance(Duration.ofSeconds(16));
+    assertThat(tokenCache.get()).isNotEqualTo("token-1");
+  }
+
+  @Test
+  void shouldRefreshShortLivedTokenInBackgroundAtHalfLife() {
+    KindeTokenCache tokenCache = tokenCache(20L);
+    tokenCache.get();
+
+    clock.advance(Duration.ofSeconds(9));
+    tokenCache.get();
+    assertThat(tokenRequests).hasValue(1);
+
+    // Mi-vie : le jeton encore valide est servi et renouvelé (exécuteur synchrone dans ce test)
+    clock.advance(Duration.ofSeconds(2));
+    assertThat(tokenCache.get()).isEqualTo("token-1");
+    assertThat(tokenRequests).hasValue(2);
+  }
+
+  @Test
+  void shouldCacheTokenWithoutExpiresInForMinimumLifetime() {
+    KindeTokenCache tokenCache = tokenCache(null);
+
+    for (int i = 0; i < 5; i++) {
+      tokenCache.get();
+    }
+
+    assertThat(tokenRequests).hasValue(1);
+  }
+
+  private KindeTokenCache tokenCache(Long expiresIn) {
+    return new KindeTokenCache(() -> new KindeAccessToken("token-" + tokenRequests.incrementAndGet(), "Bearer", expiresIn),
+      Runnable::run, Duration.ofSeconds(60), Duration.ZERO, Duration.ofMinutes(5), clock);
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private Instant now;
+
+    private MutableClock(Instant now) {
+      this.now = now;
+    }
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
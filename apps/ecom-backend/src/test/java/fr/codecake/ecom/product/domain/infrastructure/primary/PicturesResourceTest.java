@@ -0,0 +1,131 @@
+package fr.codecake.ecom.product.domain.infrastructure.primary;
+
+import fr.codecake.ecom.product.application.ProductsApplicationService;
+import fr.codecake.ecom.product.domain.aggregate.Picture;
+import fr.codecake.ecom.product.domain.aggregate.PictureBuilder;
+import fr.codecake.ecom.product.domain.vo.PictureVariant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PicturesResourceTest {
+
+  private static final String CONTENT_HASH = "a".repeat(64);
+  private static final String ETAG = "\"" + CONTENT_HASH + "\"";
+
+  @TempDir
+  private Path storageRoot;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    Path file = Files.writeString(storageRoot.resolve(CONTENT_HASH), "0123456789", StandardCharsets.UTF_8);
+    Picture picture = PictureBuilder.picture().mimeType("image/png").contentHash(CONTENT_HASH).build();
+
+    ProductsApplicationService productsApplicationService = mock(ProductsApplicationService.class);
+    when(productsApplicationService.getPicture(1L)).thenReturn(Optional.of(picture));
+    when(productsApplicationService.getPicture(2L)).thenReturn(Optional.empty());
+    when(productsApplicationService.getPictureFile(picture)).thenReturn(Optional.of(file));
+    Path cardFile = Files.writeString(storageRoot.resolve(CONTENT_HASH + ".jpg"), "card", StandardCharsets.UTF_8);
+    when(productsApplicationService.getPictureVariantFile(picture, PictureVariant.CARD)).thenReturn(Optional.of(cardFile));
+    when(productsApplicationService.getPictureVariantFile(picture, PictureVariant.DETAIL)).thenReturn(Optional.empty());
+
+    mockMvc = MockMvcBuilders.standaloneSetup(new PicturesResource(productsApplicationService)).build();
+  }
+
+  @Test
+  void shouldSendWholePictureWithCachingHeaders() throws Exception {
+    mockMvc.perform(get("/api/pictures/1"))
+      .andExpect(status().isOk())
+      .andExpect(content().contentType("image/png"))
+      .andExpect(content().string("0123456789"))
+      .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+      .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+      .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+      .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10));
+  }
+
+  @Test
+  void shouldAnswerNotModifiedWhenClientHasPicture() throws Exception {
+    mockMvc.perform(get("/api/pictures/1").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+      .andExpect(status().isNotModified())
+      .andExpect(content().string(""));
+  }
+
+  @Test
+  void shouldSendRequestedRange() throws Exception {
+    mockMvc.perform(get("/api/pictures/1").header(HttpHeaders.RANGE, "bytes=2-5"))
+      .andExpect(status().isPartialContent())
+      .andExpect(content().string("2345"))
+      .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"));
+
+    mockMvc.perform(get("/api/pictures/1").header(HttpHeaders.RANGE, "bytes=-3"))
+      .andExpect(status().isPartialContent())
+      .andExpect(content().string("789"));
+  }
+
+  @Test
+  void shouldIgnoreRangeForOtherContent() throws Exception {
+    mockMvc.perform(get("/api/pictures/1").header(HttpHeaders.RANGE, "bytes=2-5").header(HttpHeaders.IF_RANGE, "\"other\""))
+      .andExpect(status().isOk())
+      .andExpect(content().string("0123456789"));
+  }
+
+  @Test
+  void shouldRejectUnsatisfiableRange() throws Exception {
+    mockMvc.perform(get("/api/pictures/1").header(HttpHeaders.RANGE, "bytes=20-30"))
+      .andExpect(status().isRequestedRangeNotSatisfiable())
+      .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+  }
+
+  @Test
+  void shouldSendOnlyHeadersForHeadRequest() throws Exception {
+    mockMvc.perform(head("/api/pictures/1"))
+      .andExpect(status().isOk())
+      .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+      .andExpect(content().string(""));
+  }
+
+  @Test
+  void shouldSendGeneratedVariant() throws Exception {
+    mockMvc.perform(get("/api/pictures/1").param("variant", "CARD"))
+      .andExpect(status().isOk())
+      .andExpect(content().contentType("image/jpeg"))
+      .andExpect(content().string("card"))
+      .andExpect(header().string(HttpHeaders.ETAG, "\"" + CONTENT_HASH + "-card\""))
+      .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
+  }
+
+  @Test
+  void shouldSendOriginalWithShortCacheUntilVariantGenerated() throws Exception {
+    mockMvc.perform(get("/api/pictures/1").param("variant", "DETAIL"))
+      .andExpect(status().isOk())
+      .andExpect(content().contentType("image/png"))
+      .andExpect(content().string("0123456789"))
+      .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, public"));
+  }
+
+  @Test
+  void shouldAnswerNotFoundForUnknownPicture() throws Exception {
+    mockMvc.perform(get("/api/pictures/2"))
+      .andExpect(status().isNotFound());
+  }
+}
@@ -0,0 +1,35 @@
+package fr.codecake.ecom.product.domain.infrastructure.primary;
+
+import fr.codecake.ecom.product.application.ProductsApplicationService;
+import fr.codecake.ecom.shared.error.infrastructure.primary.AssertionErrorsHandler;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ProductsSearchResourceTest {
+
+  private final ProductsApplicationService productsApplicationService = mock(ProductsApplicationService.class);
+
+  private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ProductsSearchResource(productsApplicationService))
+    .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+    .setControllerAdvice(new AssertionErrorsHandler())
+    .build();
+
+  @Test
+  void shouldRejectSortSinceResultsAreAlwaysSortedByName() throws Exception {
+    mockMvc.perform(get("/api/products/search").param("sort", "price,desc"))
+      .andExpect(status().isBadRequest())
+      .andExpect(jsonPath("$.field").value("sort"));
+
+    verify(productsApplicationService, never()).search(any(), any());
+  }
+}
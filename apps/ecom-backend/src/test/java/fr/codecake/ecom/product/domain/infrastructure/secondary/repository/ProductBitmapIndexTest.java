@@ -0,0 +1,147 @@
+package fr.codecake.ecom.product.domain.infrastructure.secondary.repository;
+
+import fr.codecake.ecom.product.domain.aggregate.ProductSearchCriteria;
+import fr.codecake.ecom.product.domain.aggregate.ProductSearchCriteriaBuilder;
+import fr.codecake.ecom.product.domain.vo.ProductColor;
+import fr.codecake.ecom.product.domain.vo.ProductSize;
+import fr.codecake.ecom.product.domain.vo.PublicId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class ProductBitmapIndexTest {
+
+  private static final UUID SHIRTS = UUID.randomUUID();
+  private static final UUID COATS = UUID.randomUUID();
+
+  private final ProductBitmapIndex index = new ProductBitmapIndex();
+
+  @Test
+  void shouldCombineValuesOfOneDimensionWithOrAndDimensionsWithAnd() {
+    ProductSearchRow blue = put(1L, "Blue shirt", "#0000ff", ProductSize.M, 20, false, SHIRTS);
+    ProductSearchRow red = put(2L, "Red shirt", "#ff0000", ProductSize.M, 30, true, SHIRTS);
+    put(3L, "Red coat", "#ff0000", ProductSize.L, 90, true, COATS);
+
+    ProductBitmapIndex.Hits hits = index.search(ProductSearchCriteriaBuilder.productSearchCriteria()
+      .colors(Set.of(new ProductColor("#0000ff"), new ProductColor("#ff0000")))
+      .categories(Set.of(new PublicId(SHIRTS)))
+      .build(), Pageable.unpaged());
+
+    assertThat(hits.publicIds()).containsExactly(blue.publicId(), red.publicId());
+    assertThat(hits.total()).isEqualTo(2);
+    assertThat(hits.facets().categories()).containsExactly(entry(new PublicId(SHIRTS), 2L), entry(new PublicId(COATS), 1L));
+    assertThat(hits.facets().featured()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldFilterOnPriceAndFeatured() {
+    put(1L, "Blue shirt", "#0000ff", ProductSize.M, 20, false, SHIRTS);
+    ProductSearchRow red = put(2L, "Red shirt", "#ff0000", ProductSize.M, 30, true, SHIRTS);
+    put(3L, "Red coat", "#ff0000", ProductSize.L, 90, true, COATS);
+
+    ProductBitmapIndex.Hits hits = index.search(ProductSearchCriteriaBuilder.productSearchCriteria()
+      .minPrice(25.0)
+      .maxPrice(50.0)
+      .featured(true)
+      .build(), Pageable.unpaged());
+
+    assertThat(hits.publicIds()).containsExactly(red.publicId());
+    // La fourchette de prix affichée ignore le filtre de prix
+    assertThat(hits.facets().minPrice()).isEqualTo(30);
+    assertThat(hits.facets().maxPrice()).isEqualTo(90);
+  }
+
+  @Test
+  void shouldIgnoreProductsWithoutPriceInPriceRangeAndFacets() {
+    put(1L, "Blue shirt", "#0000ff", ProductSize.M, 20, false, SHIRTS);
+    ProductSearchRow noPrice = new ProductSearchRow(2L, UUID.randomUUID(), "Gift card", "Codecake", "#0000ff",
+      ProductSize.M, null, null, SHIRTS);
+    index.put(noPrice);
+
+    ProductBitmapIndex.Hits all = index.search(allProducts(), Pageable.unpaged());
+    assertThat(all.total()).isEqualTo(2);
+    assertThat(all.facets().minPrice()).isEqualTo(20);
+    assertThat(all.facets().maxPrice()).isEqualTo(20);
+    assertThat(all.facets().featured()).isZero();
+
+    ProductBitmapIndex.Hits inRange = index.search(ProductSearchCriteriaBuilder.productSearchCriteria()
+      .maxPrice(50.0)
+      .build(), Pageable.unpaged());
+    assertThat(inRange.publicIds()).doesNotContain(noPrice.publicId());
+  }
+
+  @Test
+  void shouldReplaceAndRemoveProductsIncrementally() {
+    ProductSearchRow blue = put(1L, "Blue shirt", "#0000ff", ProductSize.M, 20, false, SHIRTS);
+    ProductSearchRow red = put(2L, "Red shirt", "#ff0000", ProductSize.M, 30, false, SHIRTS);
+
+    index.put(new ProductSearchRow(blue.id(), blue.publicId(), blue.name(), blue.brand(), "#ff0000", ProductSize.XL,
+      blue.price(), false, SHIRTS));
+    index.remove(red.publicId());
+
+    ProductBitmapIndex.Hits hits = index.search(allProducts(), Pageable.unpaged());
+    assertThat(hits.publicIds()).containsExactly(blue.publicId());
+    assertThat(hits.facets().sizes()).containsExactly(entry(ProductSize.XL, 1L));
+    assertThat(hits.facets().colors()).containsExactly(entry(new ProductColor("#ff0000"), 1L));
+  }
+
+  @Test
+  void shouldPageResultsByName() {
+    put(1L, "Polo", "#0000ff", ProductSize.M, 20, false, SHIRTS);
+    ProductSearchRow coat = put(2L, "Coat", "#0000ff", ProductSize.M, 20, false, COATS);
+    put(3L, "Jacket", "#0000ff", ProductSize.M, 20, false, COATS);
+
+    ProductBitmapIndex.Hits hits = index.search(allProducts(), PageRequest.of(1, 2));
+
+    assertThat(hits.publicIds()).hasSize(1).doesNotContain(coat.publicId());
+    assertThat(hits.total()).isEqualTo(3);
+  }
+
+  @Test
+  void shouldKeepDatabaseOrderOfRebuiltProducts() {
+    // Ordre d'une collation insensible à la casse, différent de l'ordre des String Java ("Belt" < "apron")
+    ProductSearchRow apron = row(1L, "apron");
+    ProductSearchRow belt = row(2L, "Belt");
+    index.putInDatabaseOrder(apron);
+    index.putInDatabaseOrder(belt);
+
+    index.put(new ProductSearchRow(apron.id(), apron.publicId(), apron.name(), apron.brand(), apron.color(), apron.size(),
+      99.0, true, apron.categoryPublicId()));
+
+    assertThat(index.search(allProducts(), Pageable.unpaged()).publicIds()).containsExactly(apron.publicId(), belt.publicId());
+  }
+
+  @Test
+  void shouldPlaceProductsAddedBetweenRebuildsBetweenTheirNeighbours() {
+    ProductSearchRow coat = row(1L, "Coat");
+    ProductSearchRow polo = row(2L, "Polo");
+    index.putInDatabaseOrder(coat);
+    index.putInDatabaseOrder(polo);
+
+    ProductSearchRow jacket = row(3L, "Jacket");
+    index.put(jacket);
+
+    assertThat(index.search(allProducts(), Pageable.unpaged()).publicIds())
+      .containsExactly(coat.publicId(), jacket.publicId(), polo.publicId());
+  }
+
+  private static ProductSearchCriteria allProducts() {
+    return ProductSearchCriteriaBuilder.productSearchCriteria().build();
+  }
+
+  private static ProductSearchRow row(Long id, String name) {
+    return new ProductSearchRow(id, UUID.randomUUID(), name, "Codecake", "#0000ff", ProductSize.M, 20.0, false, SHIRTS);
+  }
+
+  private ProductSearchRow put(Long id, String name, String color, ProductSize size, double price, boolean featured, UUID category) {
+    ProductSearchRow row = new ProductSearchRow(id, UUID.randomUUID(), name, "Codecake", color, size, price, featured, category);
+    index.put(row);
+    return row;
+  }
+}
@@ -0,0 +1,207 @@
+package fr.codecake.ecom.product.domain.infrastructure.secondary.repository;
+
+import fr.codecake.ecom.product.domain.aggregate.Category;
+import fr.codecake.ecom.product.domain.aggregate.CategoryBuilder;
+import fr.codecake.ecom.product.domain.aggregate.Product;
+import fr.codecake.ecom.product.domain.aggregate.ProductBuilder;
+import fr.codecake.ecom.product.domain.infrastructure.secondary.storage.LocalPictureStorage;
+import fr.codecake.ecom.product.domain.repository.CategoryRepository;
+import fr.codecake.ecom.product.domain.repository.ProductRepository;
+import fr.codecake.ecom.product.domain.vo.CategoryName;
+import fr.codecake.ecom.product.domain.vo.ProductBrand;
+import fr.codecake.ecom.product.domain.vo.ProductColor;
+import fr.codecake.ecom.product.domain.vo.ProductDescription;
+import fr.codecake.ecom.product.domain.vo.ProductName;
+import fr.codecake.ecom.product.domain.vo.ProductPrice;
+import fr.codecake.ecom.product.domain.vo.ProductSize;
+import fr.codecake.ecom.product.domain.vo.PublicId;
+import fr.codecake.ecom.shared.jpa.ApproximateRowCount;
+import fr.codecake.ecom.wire.postgresql.infrastructure.DatabaseConfiguration;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+  "spring.datasource.url=jdbc:h2:mem:categories;INIT=CREATE SCHEMA IF NOT EXISTS ecommerce_yt",
+  "spring.datasource.driver-class-name=org.h2.Driver",
+  "spring.datasource.username=sa",
+  "spring.datasource.password=",
+  "spring.liquibase.enabled=false",
+  "spring.jpa.hibernate.ddl-auto=create-drop",
+  "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+  "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SpirngDataCategoryRepository.class, CategoryCatalogCache.class, SpringDataProductRepository.class, CategoryProductCounts.class,
+  ProductSearchIndex.class, LocalPictureStorage.class, ApproximateRowCount.class, DatabaseConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Le catalogue est rechargé après le commit des écritures
+class SpirngDataCategoryRepositoryTest {
+
+  @TempDir
+  static Path pictureStorageRoot;
+
+  @DynamicPropertySource
+  static void pictureStorage(DynamicPropertyRegistry registry) {
+    registry.add("application.picture-storage.root", () -> pictureStorageRoot.toString());
+  }
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+  }
+
+  @Test
+  void shouldServeCategoriesFromMemory() {
+    Category shirts = categoryRepository.save(newCategory("Shirts"));
+    categoryRepository.save(newCategory("Jackets"));
+    statistics.clear();
+
+    assertThat(categoryRepository.findAll()).extracting(category -> category.getName().value())
+      .contains("Shirts", "Jackets")
+      .isSortedAccordingTo(Comparator.naturalOrder());
+    assertThat(categoryRepository.findByPublicId(shirts.getPublicId())).isPresent();
+    Page<Category> page = categoryRepository.findAll(PageRequest.of(0, 1, Sort.by("name")));
+    assertThat(page.getContent()).hasSize(1);
+    assertThat(page.getTotalElements()).isEqualTo(categoryRepository.findAll().size());
+
+    assertThat(statistics.getPrepareStatementCount()).isZero();
+  }
+
+  @Test
+  void shouldRefreshCatalogAfterDelete() {
+    Category coats = categoryRepository.save(newCategory("Coats"));
+    assertThat(categoryRepository.findByPublicId(coats.getPublicId())).isPresent();
+
+    assertThat(categoryRepository.delete(coats.getPublicId())).isEqualTo(1);
+
+    assertThat(categoryRepository.findByPublicId(coats.getPublicId())).isEmpty();
+  }
+
+  @Test
+  void shouldReadOtherSortsFromDatabase() {
+    categoryRepository.save(newCategory("Sweaters"));
+    categoryRepository.findAll();
+    statistics.clear();
+
+    categoryRepository.findAll(PageRequest.of(0, 10, Sort.by("publicId")));
+
+    assertThat(statistics.getPrepareStatementCount()).isPositive();
+  }
+
+  @Test
+  void shouldMaintainProductCountsWithoutGroupBy() {
+    Category boots = categoryRepository.save(newCategory("Boots"));
+    Category hats = categoryRepository.save(newCategory("Hats"));
+    productRepository.save(newProduct(boots));
+    assertThat(productCount(boots)).isEqualTo(1);
+    assertThat(productCount(hats)).isZero();
+
+    Product secondBoot = productRepository.save(newProduct(boots));
+    productRepository.save(newProduct(hats));
+    productRepository.delete(secondBoot.getPublicId());
+    productRepository.delete(new PublicId(UUID.randomUUID()));
+    statistics.clear();
+
+    assertThat(productCount(boots)).isEqualTo(1);
+    assertThat(productCount(hats)).isEqualTo(1);
+    // Compteurs ajustés en mémoire : ni recomptage ni lecture des catégories
+    assertThat(statistics.getPrepareStatementCount()).isZero();
+  }
+
+  @Test
+  void shouldAdjustProductCountsOnUpdateAndCategoryChange() {
+    Category boots = categoryRepository.save(newCategory("Boots"));
+    Category hats = categoryRepository.save(newCategory("Hats"));
+    Product boot = productRepository.save(newProduct(boots));
+    Long bootId = dbId(boot);
+
+    // Mise à jour dans la même catégorie : compteur inchangé
+    productRepository.save(existingProduct(boot, bootId, boots));
+    assertThat(productCount(boots)).isEqualTo(1);
+
+    // Changement de catégorie : -1 sur l'ancienne, +1 sur la nouvelle
+    productRepository.save(existingProduct(boot, bootId, hats));
+    assertThat(productCount(boots)).isZero();
+    assertThat(productCount(hats)).isEqualTo(1);
+  }
+
+  private Long dbId(Product product) {
+    return entityManager.createQuery("SELECT product.id FROM ProductEntity product WHERE product.publicId = :publicId", Long.class)
+      .setParameter("publicId", product.getPublicId().value())
+      .getSingleResult();
+  }
+
+  private static Product existingProduct(Product product, Long dbId, Category category) {
+    return ProductBuilder.product()
+      .productBrand(product.getProductBrand())
+      .color(product.getColor())
+      .description(product.getDescription())
+      .name(product.getName())
+      .price(product.getPrice())
+      .size(product.getSize())
+      .category(category)
+      .pictures(List.of())
+      .dbId(dbId)
+      .publicId(product.getPublicId())
+      .nbInStock(product.getNbInStock())
+      .build();
+  }
+
+  private long productCount(Category category) {
+    return categoryRepository.findByPublicId(category.getPublicId()).orElseThrow().getProductCount();
+  }
+
+  private static Product newProduct(Category category) {
+    return ProductBuilder.product()
+      .productBrand(new ProductBrand("Codecake"))
+      .color(new ProductColor("#0000ff"))
+      .description(new ProductDescription("A warm leather item"))
+      .name(new ProductName("Leather item"))
+      .price(new ProductPrice(49.9))
+      .size(ProductSize.M)
+      .category(category)
+      .pictures(List.of())
+      .publicId(new PublicId(UUID.randomUUID()))
+      .nbInStock(5)
+      .build();
+  }
+
+  private static Category newCategory(String name) {
+    return CategoryBuilder.category()
+      .name(new CategoryName(name))
+      .publicId(new PublicId(UUID.randomUUID()))
+      .build();
+  }
+}
@@ -0,0 +1,297 @@
+package fr.codecake.ecom.product.domain.infrastructure.secondary.repository;
+
+import fr.codecake.ecom.product.domain.aggregate.Picture;
+import fr.codecake.ecom.product.domain.aggregate.PictureBuilder;
+import fr.codecake.ecom.product.domain.aggregate.PictureMetadata;
+import fr.codecake.ecom.product.domain.aggregate.Product;
+import fr.codecake.ecom.product.domain.aggregate.ProductBuilder;
+import fr.codecake.ecom.product.domain.aggregate.ProductCard;
+import fr.codecake.ecom.product.domain.aggregate.ProductSearchCriteriaBuilder;
+import fr.codecake.ecom.product.domain.aggregate.ProductSearchResult;
+import fr.codecake.ecom.product.domain.infrastructure.secondary.entity.CategoryEntity;
+import fr.codecake.ecom.product.domain.infrastructure.secondary.entity.PictureEntity;
+import fr.codecake.ecom.product.domain.infrastructure.secondary.entity.ProductEntity;
+import fr.codecake.ecom.product.domain.infrastructure.secondary.storage.LocalPictureStorage;
+import fr.codecake.ecom.product.domain.repository.PictureStorage;
+import fr.codecake.ecom.product.domain.repository.ProductRepository;
+import fr.codecake.ecom.product.domain.vo.ProductBrand;
+import fr.codecake.ecom.product.domain.vo.ProductColor;
+import fr.codecake.ecom.product.domain.vo.ProductDescription;
+import fr.codecake.ecom.product.domain.vo.ProductName;
+import fr.codecake.ecom.product.domain.vo.ProductPrice;
+import fr.codecake.ecom.product.domain.vo.ProductSize;
+import fr.codecake.ecom.product.domain.vo.PublicId;
+import fr.codecake.ecom.shared.error.domain.InvalidCursorException;
+import fr.codecake.ecom.shared.jpa.ApproximateRowCount;
+import fr.codecake.ecom.shared.pagination.domain.KeysetPage;
+import fr.codecake.ecom.shared.pagination.domain.KeysetPageRequest;
+import fr.codecake.ecom.wire.postgresql.infrastructure.DatabaseConfiguration;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+@DataJpaTest(properties = {
+  "spring.datasource.url=jdbc:h2:mem:products;INIT=CREATE SCHEMA IF NOT EXISTS ecommerce_yt",
+  "spring.datasource.driver-class-name=org.h2.Driver",
+  "spring.datasource.username=sa",
+  "spring.datasource.password=",
+  "spring.liquibase.enabled=false",
+  "spring.jpa.hibernate.ddl-auto=create-drop",
+  "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+  "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SpringDataProductRepository.class, LocalPictureStorage.class, CategoryProductCounts.class, ProductSearchIndex.class,
+  ApproximateRowCount.class, DatabaseConfiguration.class})
+class SpringDataProductRepositoryTest {
+
+  @TempDir
+  static Path pictureStorageRoot;
+
+  @DynamicPropertySource
+  static void pictureStorage(DynamicPropertyRegistry registry) {
+    registry.add("application.picture-storage.root", () -> pictureStorageRoot.toString());
+  }
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private PictureStorage pictureStorage;
+
+  private Statistics statistics;
+
+  private CategoryEntity category;
+
+  @BeforeEach
+  void setUp() {
+    category = new CategoryEntity(null, "Shirts", UUID.randomUUID(), new HashSet<>());
+    entityManager.persist(category);
+    statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+  }
+
+  @Test
+  void shouldListProductCardsWithoutLoadingPictures() {
+    ProductEntity withPictures = persistProduct("Blue shirt", 3);
+    persistProduct("Red shirt", 0);
+    persistProduct("White shirt", 2);
+    entityManager.flush();
+    entityManager.clear();
+    statistics.clear();
+
+    Page<ProductCard> page = productRepository.findAll(PageRequest.of(0, 2, Sort.by("name")));
+
+    assertThat(page.getTotalElements()).isEqualTo(3);
+    assertThat(page.getContent()).extracting(ProductCard::name)
+      .containsExactly(new ProductName("Blue shirt"), new ProductName("Red shirt"));
+    assertThat(page.getContent().getFirst().firstPictureId())
+      .isEqualTo(withPictures.getPictures().stream().mapToLong(PictureEntity::getId).min().orElseThrow());
+    assertThat(page.getContent().get(1).firstPictureId()).isNull();
+    // Une requête pour la page, une pour le total ; aucune entité (ni image) chargée
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    assertThat(statistics.getEntityLoadCount()).isZero();
+  }
+
+  @Test
+  void shouldListProductCardsSliceWithoutCount() {
+    List.of("Polo", "Jacket", "Coat").forEach(name -> persistProduct(name, 1));
+    entityManager.flush();
+    entityManager.clear();
+    statistics.clear();
+
+    Slice<ProductCard> slice = productRepository.findSlice(PageRequest.of(0, 2, Sort.by("name")));
+
+    assertThat(slice.getContent()).extracting(ProductCard::name)
+      .containsExactly(new ProductName("Coat"), new ProductName("Jacket"));
+    assertThat(slice.hasNext()).isTrue();
+    // Une seule requête : la ligne supplémentaire remplace le COUNT
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldWalkProductsPageByPageFromCursor() {
+    List.of("Polo", "Blue shirt", "Jacket", "Blue shirt", "Coat").forEach(name -> persistProduct(name, 1));
+    entityManager.flush();
+    entityManager.clear();
+    statistics.clear();
+
+    List<String> names = new ArrayList<>();
+    KeysetPage<ProductCard> page = productRepository.findAll(KeysetPageRequest.first(2));
+    names.addAll(page.content().stream().map(card -> card.name().value()).toList());
+    while (page.hasNext()) {
+      page = productRepository.findAll(new KeysetPageRequest(page.nextCursor(), 2));
+      names.addAll(page.content().stream().map(card -> card.name().value()).toList());
+    }
+
+    assertThat(names).containsExactly("Blue shirt", "Blue shirt", "Coat", "Jacket", "Polo");
+    // Une requête par page, sans COUNT
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+  }
+
+  @Test
+  void shouldRejectTamperedCursor() {
+    assertThatThrownBy(() -> productRepository.findAll(new KeysetPageRequest("not-a-cursor", 2)))
+      .isInstanceOf(InvalidCursorException.class);
+  }
+
+  @Test
+  void shouldStorePictureContentOutsideTheDatabaseOnce() throws IOException {
+    byte[] content = "identical picture".getBytes(StandardCharsets.UTF_8);
+
+    Product saved = productRepository.save(newProduct(List.of(
+      PictureBuilder.picture().file(content).mimeType("image/png").build(),
+      PictureBuilder.picture().file(content.clone()).mimeType("image/png").build())));
+    entityManager.flush();
+    entityManager.clear();
+
+    List<PictureEntity> pictures = entityManager.createQuery("SELECT picture FROM PictureEntity picture", PictureEntity.class)
+      .getResultList();
+    assertThat(pictures).hasSize(2)
+      .extracting(PictureEntity::getContentHash).containsOnly(saved.getPictures().getFirst().contentHash());
+    assertThat(pictures).extracting(PictureEntity::getFileSize).containsOnly((long) content.length);
+    // Deux images identiques, un seul fichier
+    try (Stream<Path> files = Files.walk(pictureStorageRoot)) {
+      assertThat(files.filter(Files::isRegularFile).filter(file -> !file.startsWith(pictureStorageRoot.resolve("incoming"))))
+        .hasSize(1);
+    }
+    try (InputStream stored = pictureStorage.open(pictures.getFirst().getContentHash())) {
+      assertThat(stored.readAllBytes()).isEqualTo(content);
+    }
+  }
+
+  @Test
+  void shouldListProductPicturesWithoutLoadingEntities() {
+    ProductEntity product = persistProduct("Grey shirt", 3);
+    persistProduct("Black shirt", 2);
+    entityManager.flush();
+    entityManager.clear();
+    statistics.clear();
+
+    List<PictureMetadata> pictures = productRepository.findPictures(new PublicId(product.getPublicId()));
+
+    assertThat(pictures).extracting(PictureMetadata::id)
+      .containsExactlyElementsOf(product.getPictures().stream().map(PictureEntity::getId).sorted().toList());
+    assertThat(pictures).allSatisfy(picture -> assertThat(picture.size()).isEqualTo(1024));
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    assertThat(statistics.getEntityLoadCount()).isZero();
+  }
+
+  @Test
+  void shouldDeleteProductWithItsPictures() {
+    ProductEntity product = persistProduct("Green shirt", 2);
+    entityManager.flush();
+    entityManager.clear();
+
+    assertThat(productRepository.delete(new PublicId(product.getPublicId()))).isEqualTo(1);
+    assertThat(productRepository.delete(new PublicId(UUID.randomUUID()))).isZero();
+
+    assertThat(entityManager.createQuery("SELECT COUNT(picture) FROM PictureEntity picture", Long.class)
+      .getSingleResult()).isZero();
+  }
+
+  @Test
+  void shouldSearchProductsWithFacetsFromIndex() {
+    persistProduct("Blue shirt", "Codecake", ProductSize.M, 19.9, 1);
+    persistProduct("Red shirt", "Codecake", ProductSize.L, 29.9, 0);
+    persistProduct("Green shirt", "Northwind", ProductSize.M, 39.9, 0);
+    entityManager.flush();
+    entityManager.clear();
+
+    ProductSearchResult result = productRepository.search(ProductSearchCriteriaBuilder.productSearchCriteria()
+      .brands(Set.of(new ProductBrand("Codecake")))
+      .sizes(Set.of(ProductSize.M))
+      .build(), PageRequest.of(0, 10));
+
+    assertThat(result.products().getContent()).extracting(ProductCard::name).containsExactly(new ProductName("Blue shirt"));
+    assertThat(result.products().getContent().getFirst().firstPictureId()).isNotNull();
+    assertThat(result.products().getTotalElements()).isEqualTo(1);
+    // Les comptes d'une dimension ignorent son propre filtre
+    assertThat(result.facets().brands()).containsOnly(entry(new ProductBrand("Codecake"), 1L), entry(new ProductBrand("Northwind"), 1L));
+    assertThat(result.facets().sizes()).containsExactly(entry(ProductSize.M, 1L), entry(ProductSize.L, 1L));
+    assertThat(result.facets().categories()).containsExactly(entry(new PublicId(category.getPublicId()), 1L));
+
+    statistics.clear();
+    productRepository.search(ProductSearchCriteriaBuilder.productSearchCriteria().minPrice(25.0).build(), PageRequest.of(0, 10));
+    // Index déjà construit : seule la page de cartes est lue en base
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldListProductCardsWithoutOptionalColumns() {
+    ProductEntity product = persistProduct("Plain shirt", null, ProductSize.M, 19.9, 0);
+    product.setColor(null);
+    entityManager.flush();
+    entityManager.clear();
+
+    ProductCard card = productRepository.findAll(PageRequest.of(0, 10)).getContent().getFirst();
+
+    assertThat(card.brand()).isNull();
+    assertThat(card.color()).isNull();
+    // Le prix est nullable en base mais pas dans le schéma généré depuis l'entité : vérifié sur la projection
+    assertThat(new ProductCardProjection(1L, UUID.randomUUID(), "Plain shirt", null, null, null, ProductSize.M, null)
+      .toDomain().price()).isNull();
+  }
+
+  private ProductEntity persistProduct(String name, int pictureCount) {
+    return persistProduct(name, "Codecake", ProductSize.M, 19.9, pictureCount);
+  }
+
+  private ProductEntity persistProduct(String name, String brand, ProductSize size, double price, int pictureCount) {
+    ProductEntity product = new ProductEntity(null, brand, "#0000ff", "A shirt", name, price, false,
+      size, UUID.randomUUID(), 10, new HashSet<>(), category);
+    entityManager.persist(product);
+    for (int i = 0; i < pictureCount; i++) {
+      PictureEntity picture = new PictureEntity(null, "0".repeat(64), 1024, "image/png", product);
+      entityManager.persist(picture);
+      product.getPictures().add(picture);
+    }
+    return product;
+  }
+
+  private Product newProduct(List<Picture> pictures) {
+    return ProductBuilder.product()
+      .productBrand(new ProductBrand("Codecake"))
+      .color(new ProductColor("#0000ff"))
+      .description(new ProductDescription("A yellow cotton shirt"))
+      .name(new ProductName("Yellow shirt"))
+      .price(new ProductPrice(19.9))
+      .size(ProductSize.M)
+      .category(CategoryEntity.to(category))
+      .pictures(pictures)
+      .publicId(new PublicId(UUID.randomUUID()))
+      .nbInStock(10)
+      .build();
+  }
+}
@@ -0,0 +1,79 @@
+package fr.codecake.ecom.product.domain.infrastructure.secondary.storage;
+
+import fr.codecake.ecom.product.domain.repository.PictureStorage.StoredPicture;
+import fr.codecake.ecom.product.domain.vo.PictureVariant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageIoPictureVariantGeneratorTest {
+
+  @TempDir
+  private Path storageRoot;
+
+  private LocalPictureStorage pictureStorage;
+
+  private ImageIoPictureVariantGenerator generator;
+
+  @BeforeEach
+  void setUp() {
+    pictureStorage = new LocalPictureStorage(storageRoot);
+    generator = new ImageIoPictureVariantGenerator(pictureStorage, 10, 1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    generator.shutdown();
+  }
+
+  @Test
+  void shouldGenerateEveryVariantWithinItsBox() throws IOException {
+    StoredPicture picture = pictureStorage.store(png(3000, 1500));
+
+    generator.generateNow(picture.contentHash());
+
+    for (PictureVariant variant : PictureVariant.values()) {
+      Path variantFile = pictureStorage.localVariantFile(picture.contentHash(), variant).orElseThrow();
+      BufferedImage image = ImageIO.read(variantFile.toFile());
+      assertThat(image.getWidth()).isEqualTo(variant.maxSize());
+      assertThat(image.getHeight()).isEqualTo(variant.maxSize() / 2);
+    }
+  }
+
+  @Test
+  void shouldNeverEnlargeSmallPictures() throws IOException {
+    StoredPicture picture = pictureStorage.store(png(200, 100));
+
+    generator.generateNow(picture.contentHash());
+
+    BufferedImage detail = ImageIO.read(pictureStorage.localVariantFile(picture.contentHash(), PictureVariant.DETAIL)
+      .orElseThrow().toFile());
+    assertThat(detail.getWidth()).isEqualTo(200);
+  }
+
+  @Test
+  void shouldSkipFormatsWithoutImageIoReader() {
+    StoredPicture picture = pictureStorage.store("RIFF0000WEBPVP8 ".getBytes(StandardCharsets.US_ASCII));
+
+    generator.generateNow(picture.contentHash());
+
+    assertThat(pictureStorage.localVariantFile(picture.contentHash(), PictureVariant.THUMBNAIL)).isEmpty();
+  }
+
+  private static byte[] png(int width, int height) throws IOException {
+    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", out);
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,114 @@
+package fr.codecake.ecom.product.domain.infrastructure.secondary.storage;
+
+import liquibase.Contexts;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Migration des images vers le stockage de fichiers sur un vrai PostgreSQL : `file` y est un OID (large object).
+ * Ignoré sans Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PictureFileMigrationTest {
+
+  private static final String CHANGELOG = "db/changelog/00000000000007_picture_storage.xml";
+
+  @Container
+  private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @TempDir
+  private Path storageRoot;
+
+  @Test
+  void shouldMoveLargeObjectContentToStorageAndUnlinkIt() throws Exception {
+    byte[] first = "first picture content".getBytes(StandardCharsets.UTF_8);
+    byte[] second = "second picture content".getBytes(StandardCharsets.UTF_8);
+
+    try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())) {
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("CREATE SCHEMA ecommerce_yt");
+        // Table telle que créée par le changelog 03 (${blobType} = OID sur PostgreSQL)
+        statement.execute("CREATE TABLE ecommerce_yt.product_picture (id bigint PRIMARY KEY, file oid NOT NULL, " +
+          "file_content_type varchar(255) NOT NULL, product_fk bigint)");
+      }
+      insertPicture(connection, 1, first);
+      insertPicture(connection, 2, second);
+      try (Statement statement = connection.createStatement()) {
+        // Deux lignes peuvent référencer le même large object : il ne doit être supprimé qu'une fois
+        statement.execute("INSERT INTO ecommerce_yt.product_picture SELECT 3, file, file_content_type, product_fk " +
+          "FROM ecommerce_yt.product_picture WHERE id = 1");
+      }
+
+      Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+      database.setDefaultSchemaName("ecommerce_yt");
+      Liquibase liquibase = new Liquibase(CHANGELOG, new ClassLoaderResourceAccessor(), database);
+      liquibase.setChangeLogParameter("pictureStorageRoot", storageRoot.toString());
+      liquibase.update(new Contexts());
+
+      Map<Long, String> hashes = new LinkedHashMap<>();
+      try (Statement statement = connection.createStatement();
+           ResultSet rows = statement.executeQuery("SELECT id, content_hash, file_size FROM ecommerce_yt.product_picture ORDER BY id")) {
+        while (rows.next()) {
+          hashes.put(rows.getLong("id"), rows.getString("content_hash"));
+          assertThat(rows.getLong("file_size")).isEqualTo(rows.getLong("id") == 2 ? second.length : first.length);
+        }
+      }
+      assertThat(hashes).containsExactly(Map.entry(1L, sha256(first)), Map.entry(2L, sha256(second)), Map.entry(3L, sha256(first)));
+
+      LocalPictureStorage storage = new LocalPictureStorage(storageRoot);
+      try (InputStream stored = storage.open(sha256(first))) {
+        assertThat(stored.readAllBytes()).isEqualTo(first);
+      }
+      try (InputStream stored = storage.open(sha256(second))) {
+        assertThat(stored.readAllBytes()).isEqualTo(second);
+      }
+
+      assertThat(count(connection, "SELECT COUNT(*) FROM pg_largeobject_metadata")).isZero();
+      assertThat(count(connection, "SELECT COUNT(*) FROM information_schema.columns " +
+        "WHERE table_schema = 'ecommerce_yt' AND table_name = 'product_picture' AND column_name = 'file'")).isZero();
+    }
+  }
+
+  private static void insertPicture(Connection connection, long id, byte[] content) throws Exception {
+    try (PreparedStatement insert = connection.prepareStatement(
+      "INSERT INTO ecommerce_yt.product_picture (id, file, file_content_type) VALUES (?, lo_from_bytea(0, ?), 'image/png')")) {
+      insert.setLong(1, id);
+      insert.setBytes(2, content);
+      insert.executeUpdate();
+    }
+  }
+
+  private static long count(Connection connection, String query) throws Exception {
+    try (Statement statement = connection.createStatement(); ResultSet result = statement.executeQuery(query)) {
+      result.next();
+      return result.getLong(1);
+    }
+  }
+
+  private static String sha256(byte[] content) throws Exception {
+    return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+  }
+}
@@ -0,0 +1,122 @@
+package fr.codecake.ecom.product.domain.service;
+
+import fr.codecake.ecom.product.domain.infrastructure.secondary.storage.LocalPictureStorage;
+import fr.codecake.ecom.product.domain.repository.PictureStorage.StoredPicture;
+import fr.codecake.ecom.product.domain.repository.PictureVariantGenerator;
+import fr.codecake.ecom.product.domain.repository.ProductRepository;
+import fr.codecake.ecom.product.domain.vo.PublicId;
+import fr.codecake.ecom.shared.error.domain.PictureTooLargeException;
+import fr.codecake.ecom.shared.error.domain.UnsupportedPictureFormatException;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PictureUploaderTest {
+
+  private static final byte[] PNG_HEADER = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+  private static final PublicId PRODUCT = new PublicId(UUID.randomUUID());
+
+  @TempDir
+  private Path storageRoot;
+
+  private ProductRepository productRepository;
+
+  private PictureVariantGenerator pictureVariantGenerator;
+
+  private PictureUploader pictureUploader;
+
+  @BeforeEach
+  void setUp() {
+    productRepository = mock(ProductRepository.class);
+    pictureVariantGenerator = mock(PictureVariantGenerator.class);
+    pictureUploader = new PictureUploader(productRepository, new LocalPictureStorage(storageRoot), pictureVariantGenerator, 64);
+    when(productRepository.exists(PRODUCT)).thenReturn(true);
+  }
+
+  @Test
+  void shouldStorePictureDetectedFromMagicBytes() {
+    byte[] png = picture(PNG_HEADER, 40);
+    when(productRepository.addPicture(eq(PRODUCT), any(), eq("image/png"))).thenReturn(7L);
+
+    assertThat(pictureUploader.upload(PRODUCT, new ByteArrayInputStream(png))).isEqualTo(7L);
+
+    verify(productRepository).addPicture(eq(PRODUCT), eq(new StoredPicture(sha256(png), png.length)), eq("image/png"));
+    verify(pictureVariantGenerator).generate(sha256(png));
+  }
+
+  @Test
+  void shouldRejectContentThatIsNotAPicture() {
+    assertThatThrownBy(() -> pictureUploader.upload(PRODUCT, new ByteArrayInputStream("<html></html>".getBytes())))
+      .isInstanceOf(UnsupportedPictureFormatException.class);
+
+    verify(productRepository, never()).addPicture(any(), any(), anyString());
+  }
+
+  @Test
+  void shouldNotReadContentForUnknownProduct() throws IOException {
+    PublicId unknownProduct = new PublicId(UUID.randomUUID());
+
+    assertThatThrownBy(() -> pictureUploader.upload(unknownProduct, new ByteArrayInputStream(picture(PNG_HEADER, 40))))
+      .isInstanceOf(EntityNotFoundException.class);
+
+    verify(productRepository, never()).addPicture(any(), any(), anyString());
+    verifyNoInteractions(pictureVariantGenerator);
+    try (Stream<Path> files = Files.walk(storageRoot)) {
+      assertThat(files.filter(Files::isRegularFile)).isEmpty();
+    }
+  }
+
+  @Test
+  void shouldStopCopyingOnceMaxSizeExceeded() throws IOException {
+    assertThatThrownBy(() -> pictureUploader.upload(PRODUCT, new ByteArrayInputStream(picture(PNG_HEADER, 100))))
+      .isInstanceOf(PictureTooLargeException.class);
+
+    verify(productRepository, never()).addPicture(any(), any(), anyString());
+    try (Stream<Path> files = Files.walk(storageRoot)) {
+      assertThat(files.filter(Files::isRegularFile)).isEmpty();
+    }
+  }
+
+  @Test
+  void shouldRejectAnnouncedSizeBeforeReading() {
+    assertThatThrownBy(() -> pictureUploader.checkSize(65))
+      .isInstanceOf(PictureTooLargeException.class);
+  }
+
+  private static byte[] picture(byte[] header, int size) {
+    byte[] picture = Arrays.copyOf(header, size);
+    Arrays.fill(picture, header.length, size, (byte) 1);
+    return picture;
+  }
+
+  private static String sha256(byte[] content) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
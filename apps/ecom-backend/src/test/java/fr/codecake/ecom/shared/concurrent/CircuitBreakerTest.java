@@ -0,0 +1,32 @@
+package fr.codecake.ecom.shared.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CircuitBreakerTest {
+
+  @Test
+  void shouldReleaseHalfOpenTrialWhenItThrowsAnError() {
+    // Réouverture immédiate : chaque appel suivant un échec est un appel d'essai (HALF_OPEN)
+    CircuitBreaker circuitBreaker = new CircuitBreaker("test", 1, Duration.ZERO, Duration.ofMinutes(1), 1,
+      Duration.ofSeconds(1), e -> false);
+
+    assertThatThrownBy(() -> circuitBreaker.call(() -> {
+      throw new IllegalStateException("down");
+    })).isInstanceOf(IllegalStateException.class);
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+    assertThatThrownBy(() -> circuitBreaker.call(() -> {
+      throw new StackOverflowError();
+    })).isInstanceOf(StackOverflowError.class);
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+    // L'essai suivant est autorisé et son succès referme le circuit
+    assertThat(circuitBreaker.call(() -> "ok")).isEqualTo("ok");
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+  }
+}
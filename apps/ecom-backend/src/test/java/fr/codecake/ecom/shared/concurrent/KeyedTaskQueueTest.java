@@ -0,0 +1,72 @@
+package fr.codecake.ecom.shared.concurrent;
+
+import fr.codecake.ecom.shared.concurrent.KeyedTaskQueue.SubmitResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyedTaskQueueTest {
+
+  @Test
+  void shouldDeduplicatePendingKeysAndRejectWhenFull() throws InterruptedException {
+    try (KeyedTaskQueue<String> queue = new KeyedTaskQueue<>(1, 1)) {
+      CountDownLatch running = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      AtomicInteger pendingRuns = new AtomicInteger();
+      CountDownLatch pendingDone = new CountDownLatch(1);
+
+      // Le seul worker est occupé : les tâches suivantes restent dans la file
+      assertThat(queue.submit("busy", () -> {
+        running.countDown();
+        await(release);
+      })).isEqualTo(SubmitResult.QUEUED);
+      assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+      assertThat(queue.submit("pending", () -> {
+        pendingRuns.incrementAndGet();
+        pendingDone.countDown();
+      })).isEqualTo(SubmitResult.QUEUED);
+      assertThat(queue.submit("pending", pendingRuns::incrementAndGet)).isEqualTo(SubmitResult.ALREADY_PENDING);
+      assertThat(queue.submit("other", () -> { })).isEqualTo(SubmitResult.QUEUE_FULL);
+
+      release.countDown();
+      assertThat(pendingDone.await(5, TimeUnit.SECONDS)).isTrue();
+      assertThat(pendingRuns).hasValue(1);
+    }
+  }
+
+  @Test
+  void shouldStopWorkersOnClose() throws InterruptedException {
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    KeyedTaskQueue<String> queue = new KeyedTaskQueue<>(10, 1);
+    queue.submit("long", () -> {
+      running.countDown();
+      try {
+        new CountDownLatch(1).await();
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+    });
+    assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+    queue.close();
+
+    assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    CountDownLatch ranAfterClose = new CountDownLatch(1);
+    queue.submit("late", ranAfterClose::countDown);
+    assertThat(ranAfterClose.await(200, TimeUnit.MILLISECONDS)).isFalse();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
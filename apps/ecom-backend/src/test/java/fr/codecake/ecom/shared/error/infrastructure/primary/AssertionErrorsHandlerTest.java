@@ -0,0 +1,60 @@
+package fr.codecake.ecom.shared.error.infrastructure.primary;
+
+import fr.codecake.ecom.shared.error.domain.InvalidCursorException;
+import fr.codecake.ecom.shared.error.domain.PictureTooLargeException;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AssertionErrorsHandlerTest {
+
+  private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new FailingResource())
+    .setControllerAdvice(new AssertionErrorsHandler())
+    .build();
+
+  @Test
+  void shouldMapPictureTooLargeToPayloadTooLarge() throws Exception {
+    mockMvc.perform(get("/picture-too-large"))
+      .andExpect(status().isPayloadTooLarge())
+      .andExpect(jsonPath("$.field").value("file"));
+  }
+
+  @Test
+  void shouldMapOtherAssertionsToBadRequest() throws Exception {
+    mockMvc.perform(get("/invalid-cursor"))
+      .andExpect(status().isBadRequest())
+      .andExpect(jsonPath("$.field").value("cursor"));
+  }
+
+  @Test
+  void shouldMapUnknownEntityToNotFound() throws Exception {
+    mockMvc.perform(get("/not-found"))
+      .andExpect(status().isNotFound());
+  }
+
+  @RestController
+  static class FailingResource {
+
+    @GetMapping("/picture-too-large")
+    void pictureTooLarge() {
+      throw new PictureTooLargeException("file", 10);
+    }
+
+    @GetMapping("/invalid-cursor")
+    void invalidCursor() {
+      throw new InvalidCursorException("cursor", "Invalid pagination cursor");
+    }
+
+    @GetMapping("/not-found")
+    void notFound() {
+      throw new EntityNotFoundException("No product found");
+    }
+  }
+}